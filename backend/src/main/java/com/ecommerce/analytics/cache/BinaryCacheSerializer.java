@@ -0,0 +1,135 @@
+package com.ecommerce.analytics.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.luben.zstd.Zstd;
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Factory;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Cache value serializer writing Smile (binary JSON) behind a small header:
+ * magic byte, format version, compression id and, for compressed payloads, the original length.
+ * Smile back-references repeated property names and type ids, so collections of DTOs do not
+ * repeat them per element. Values written by the JSON serializer are still readable, and
+ * values with an unknown header read as a cache miss.
+ */
+@Slf4j
+public class BinaryCacheSerializer implements RedisSerializer<Object> {
+
+    public enum Compression {
+        NONE(0), LZ4(1), ZSTD(2);
+
+        private final byte id;
+
+        Compression(int id) {
+            this.id = (byte) id;
+        }
+    }
+
+    static final byte MAGIC = (byte) 0xCB;
+    static final byte FORMAT_VERSION = 1;
+
+    private static final int ZSTD_LEVEL = 3;
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    // Also the json codec, so values it wrote are readable after switching to a binary one
+    static final GenericJackson2JsonRedisSerializer JSON = new GenericJackson2JsonRedisSerializer(
+            configure(new ObjectMapper()));
+
+    private static final ObjectMapper MAPPER = configure(new ObjectMapper(SmileFactory.builder()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .build()));
+
+    private final Compression compression;
+    private final int compressionThreshold;
+
+    public BinaryCacheSerializer(Compression compression, int compressionThreshold) {
+        this.compression = compression;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        byte[] payload;
+        try {
+            payload = MAPPER.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write cache value: " + e.getMessage(), e);
+        }
+
+        if (compression == Compression.NONE || payload.length < compressionThreshold) {
+            return ByteBuffer.allocate(3 + payload.length)
+                    .put(MAGIC).put(FORMAT_VERSION).put(Compression.NONE.id)
+                    .put(payload)
+                    .array();
+        }
+
+        byte[] compressed = compression == Compression.LZ4 ? LZ4.fastCompressor().compress(payload) : Zstd.compress(payload, ZSTD_LEVEL);
+        return ByteBuffer.allocate(7 + compressed.length)
+                .put(MAGIC).put(FORMAT_VERSION).put(compression.id).putInt(payload.length)
+                .put(compressed)
+                .array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            // Written by the JSON serializer before this cache switched codecs
+            return bytes[0] == '{' || bytes[0] == '[' ? JSON.deserialize(bytes) : null;
+        }
+        if (bytes.length < 3 || bytes[1] != FORMAT_VERSION) {
+            log.debug("Ignoring cache value with unsupported format version {}", bytes.length > 1 ? bytes[1] : -1);
+            return null;
+        }
+
+        try {
+            byte[] payload = switch (bytes[2]) {
+                case 0 -> slice(bytes, 3);
+                case 1 -> LZ4.fastDecompressor().decompress(bytes, 7, originalLength(bytes));
+                case 2 -> Zstd.decompress(slice(bytes, 7), originalLength(bytes));
+                default -> null;
+            };
+            return payload != null ? MAPPER.readValue(payload, Object.class) : null;
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Could not read cache value: " + e.getMessage(), e);
+        }
+    }
+
+    private static int originalLength(byte[] bytes) {
+        return ByteBuffer.wrap(bytes, 3, 4).getInt();
+    }
+
+    private static byte[] slice(byte[] bytes, int offset) {
+        byte[] slice = new byte[bytes.length - offset];
+        System.arraycopy(bytes, offset, slice, 0, slice.length);
+        return slice;
+    }
+
+    // Same typing rules as GenericJackson2JsonRedisSerializer, so any cached type round-trips;
+    // unlike its default mapper this one handles the java.time fields of the DTOs
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        GenericJackson2JsonRedisSerializer.registerNullValueSerializer(mapper, null);
+        mapper.activateDefaultTyping(mapper.getPolymorphicTypeValidator(),
+                ObjectMapper.DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY);
+        return mapper;
+    }
+}
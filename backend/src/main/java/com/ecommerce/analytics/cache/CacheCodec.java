@@ -0,0 +1,26 @@
+package com.ecommerce.analytics.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Locale;
+
+/**
+ * Value encodings a Redis cache can be configured with, named in configuration as
+ * {@code json}, {@code binary}, {@code binary-lz4} or {@code binary-zstd}.
+ */
+public enum CacheCodec {
+    JSON, BINARY, BINARY_LZ4, BINARY_ZSTD;
+
+    public static CacheCodec fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    public RedisSerializer<Object> serializer(int compressionThreshold) {
+        return switch (this) {
+            case JSON -> BinaryCacheSerializer.JSON;
+            case BINARY -> new BinaryCacheSerializer(BinaryCacheSerializer.Compression.NONE, compressionThreshold);
+            case BINARY_LZ4 -> new BinaryCacheSerializer(BinaryCacheSerializer.Compression.LZ4, compressionThreshold);
+            case BINARY_ZSTD -> new BinaryCacheSerializer(BinaryCacheSerializer.Compression.ZSTD, compressionThreshold);
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.analytics.cache;
+
+import java.time.Duration;
+
+/**
+ * Per-cache loading behaviour. With single-flight on, one node at a time runs the loader for a
+ * key while the others wait for its result in Redis. A refresh-ahead ratio above zero reloads
+ * the entry in the background once that fraction of its TTL has passed, serving the old value
+ * meanwhile.
+ */
+public record CachePolicy(Duration ttl, boolean singleFlight, double refreshAheadRatio, Duration lockTimeout) {
+
+    public static final CachePolicy NONE = new CachePolicy(Duration.ZERO, false, 0, Duration.ZERO);
+
+    public boolean refreshAhead() {
+        return refreshAheadRatio > 0 && refreshAheadRatio < 1 && !ttl.isZero();
+    }
+
+    // Epoch millis at which an entry with the given remaining lifetime is due for refresh
+    long refreshAt(long now, long remainingTtlMillis) {
+        if (!refreshAhead() || remainingTtlMillis < 0) {
+            return Long.MAX_VALUE;
+        }
+        long refreshWindow = (long) (ttl.toMillis() * (1 - refreshAheadRatio));
+        return now + Math.max(0, remainingTtlMillis - refreshWindow);
+    }
+}
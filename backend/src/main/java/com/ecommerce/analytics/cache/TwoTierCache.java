@@ -0,0 +1,447 @@
+package com.ecommerce.analytics.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Caffeine L1 in front of a Redis L2. Writes go to both tiers and broadcast an eviction so
+ * other nodes drop their now-stale L1 copy; reads fall through L1, then L2, then the loader.
+ * Loader coalescing and refresh-ahead follow the cache's {@link CachePolicy}.
+ */
+@Slf4j
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+    private static final String LOCK_PREFIX = "cache-lock:";
+    private static final String TAG_PREFIX = "cache-tags:";
+    private static final Duration DEFAULT_TAG_TTL = Duration.ofHours(1);
+    private static final long LOCK_POLL_MILLIS = 50;
+
+    private static final RedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, LocalEntry> local;
+    private final Cache remote;
+    private final CachePolicy policy;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Executor refreshExecutor;
+    private final BiConsumer<String, String> evictionBroadcaster;
+
+    private final Map<String, Boolean> refreshing = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<LocalEntry>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadSuccessNanos = new LongAdder();
+    private final LongAdder loadFailureNanos = new LongAdder();
+
+    TwoTierCache(String name,
+                 com.github.benmanes.caffeine.cache.Cache<String, LocalEntry> local,
+                 Cache remote,
+                 CachePolicy policy,
+                 StringRedisTemplate stringRedisTemplate,
+                 Executor refreshExecutor,
+                 BiConsumer<String, String> evictionBroadcaster) {
+        super(true);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.policy = policy;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.refreshExecutor = refreshExecutor;
+        this.evictionBroadcaster = evictionBroadcaster;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = localKey(key);
+        LocalEntry entry = local.getIfPresent(localKey);
+        if (entry != null) {
+            localHits.increment();
+            return entry.storeValue();
+        }
+
+        entry = fromRemote(key, localKey);
+        if (entry != null) {
+            local.put(localKey, entry);
+            return entry.storeValue();
+        }
+        misses.increment();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        LocalEntry entry = local.getIfPresent(localKey);
+        if (entry != null) {
+            localHits.increment();
+            if (System.currentTimeMillis() >= entry.refreshAt()) {
+                refreshAsync(key, localKey, valueLoader);
+            }
+            return (T) fromStoreValue(entry.storeValue());
+        }
+
+        entry = loadOnce(key, localKey, valueLoader);
+        if (System.currentTimeMillis() >= entry.refreshAt()) {
+            refreshAsync(key, localKey, valueLoader);
+        }
+        return (T) fromStoreValue(entry.storeValue());
+    }
+
+    // Concurrent callers for the same key on this node share one L2 read / load. They wait on a
+    // future rather than inside a Caffeine compute, so the cross-node lock wait never blocks
+    // writers of unrelated keys that hash to the same Caffeine bin
+    private LocalEntry loadOnce(Object key, String localKey, Callable<?> valueLoader) {
+        CompletableFuture<LocalEntry> flight = new CompletableFuture<>();
+        CompletableFuture<LocalEntry> existing = inFlight.putIfAbsent(localKey, flight);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            // A flight that finished just before ours started has already filled L1
+            LocalEntry entry = local.getIfPresent(localKey);
+            if (entry == null) {
+                LocalEntry remoteEntry = fromRemote(key, localKey);
+                entry = remoteEntry != null ? remoteEntry : load(key, localKey, valueLoader);
+                LocalEntry loaded = entry;
+                // A put or eviction during the load detaches the flight; its value is then not kept
+                inFlight.computeIfPresent(localKey, (k, current) -> {
+                    if (current == flight) {
+                        local.put(k, loaded);
+                    }
+                    return current;
+                });
+            }
+            flight.complete(entry);
+            return entry;
+        } catch (Throwable t) {
+            flight.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(localKey, flight);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = localKey(key);
+        remote.put(key, value);
+        inFlight.remove(localKey);
+        local.put(localKey, newEntry(value));
+        puts.increment();
+        evictionBroadcaster.accept(name, localKey);
+        tag(localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        inFlight.remove(localKey(key));
+        local.invalidate(localKey(key));
+        evictionBroadcaster.accept(name, localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        inFlight.clear();
+        local.invalidateAll();
+        evictionBroadcaster.accept(name, null);
+    }
+
+    /**
+     * Evicts every key in a tag group from both tiers on all nodes. Keys are tagged by the
+     * segment before their first ':', e.g. {@code all-products:0:20} belongs to {@code all-products}.
+     */
+    public int evictTag(String tag) {
+        String tagKey = tagKey(tag);
+        Set<String> keys;
+        try {
+            keys = stringRedisTemplate.opsForSet().members(tagKey);
+        } catch (Exception e) {
+            log.warn("Failed to read tag {} of cache {}, clearing it instead: {}", tag, name, e.getMessage());
+            clear();
+            return -1;
+        }
+        if (keys == null || keys.isEmpty()) {
+            return 0;
+        }
+
+        for (String localKey : keys) {
+            remote.evict(localKey);
+            inFlight.remove(localKey);
+            local.invalidate(localKey);
+            evictionBroadcaster.accept(name, localKey);
+        }
+        // Remove only what was evicted, so keys tagged meanwhile stay registered
+        stringRedisTemplate.opsForSet().remove(tagKey, keys.toArray());
+        return keys.size();
+    }
+
+    // Applies an eviction broadcast by another node; only the local tier is touched
+    void evictLocal(String localKey) {
+        if (localKey == null) {
+            inFlight.clear();
+            local.invalidateAll();
+        } else {
+            inFlight.remove(localKey);
+            local.invalidate(localKey);
+        }
+    }
+
+    private LocalEntry fromRemote(Object key, String localKey) {
+        ValueWrapper wrapper;
+        try {
+            wrapper = remote.get(key);
+        } catch (SerializationException e) {
+            // Written in a shape this codec cannot read back; drop it and load a fresh value
+            log.warn("Discarding unreadable {} entry {}: {}", name, localKey, e.getMessage());
+            remote.evict(key);
+            return null;
+        }
+        if (wrapper == null) {
+            return null;
+        }
+
+        remoteHits.increment();
+        long refreshAt = Long.MAX_VALUE;
+        if (policy.refreshAhead()) {
+            Long remaining = stringRedisTemplate.getExpire(remoteKey(localKey), TimeUnit.MILLISECONDS);
+            refreshAt = policy.refreshAt(System.currentTimeMillis(), remaining != null ? remaining : -1);
+        }
+        return new LocalEntry(toStoreValue(wrapper.get()), refreshAt);
+    }
+
+    private LocalEntry load(Object key, String localKey, Callable<?> valueLoader) {
+        misses.increment();
+        if (!policy.singleFlight()) {
+            return loadAndStore(key, localKey, valueLoader);
+        }
+
+        String token = UUID.randomUUID().toString();
+        long deadline = System.currentTimeMillis() + policy.lockTimeout().toMillis();
+        while (!tryLock(localKey, token)) {
+            // Another node is loading this key; its result shows up in Redis when it is done
+            sleep(LOCK_POLL_MILLIS);
+            LocalEntry loaded = fromRemote(key, localKey);
+            if (loaded != null) {
+                return loaded;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                log.warn("Gave up waiting for {} loader of key {}, loading locally", name, localKey);
+                return loadAndStore(key, localKey, valueLoader);
+            }
+        }
+
+        try {
+            return loadAndStore(key, localKey, valueLoader);
+        } finally {
+            unlock(localKey, token);
+        }
+    }
+
+    private LocalEntry loadAndStore(Object key, String localKey, Callable<?> valueLoader) {
+        Object value;
+        long start = System.nanoTime();
+        try {
+            value = valueLoader.call();
+            loadSuccesses.increment();
+            loadSuccessNanos.add(System.nanoTime() - start);
+        } catch (Exception e) {
+            loadFailures.increment();
+            loadFailureNanos.add(System.nanoTime() - start);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        remote.put(key, value);
+        evictionBroadcaster.accept(name, localKey);
+        tag(localKey);
+        return newEntry(value);
+    }
+
+    // Reloads an entry nearing expiry while callers keep getting the current value
+    private void refreshAsync(Object key, String localKey, Callable<?> valueLoader) {
+        if (refreshing.putIfAbsent(localKey, Boolean.TRUE) != null) {
+            return;
+        }
+
+        refreshExecutor.execute(() -> {
+            String token = UUID.randomUUID().toString();
+            try {
+                if (!tryLock(localKey, token)) {
+                    // Another node is refreshing; its broadcast will drop our copy when done
+                    LocalEntry current = local.getIfPresent(localKey);
+                    if (current != null) {
+                        local.put(localKey, current.postponeRefresh(policy.lockTimeout().toMillis()));
+                    }
+                    return;
+                }
+                try {
+                    local.put(localKey, loadAndStore(key, localKey, valueLoader));
+                    refreshes.increment();
+                } finally {
+                    unlock(localKey, token);
+                }
+            } catch (Exception e) {
+                log.warn("Background refresh of {} key {} failed: {}", name, localKey, e.getMessage());
+            } finally {
+                refreshing.remove(localKey);
+            }
+        });
+    }
+
+    private void tag(String localKey) {
+        int separator = localKey.indexOf(':');
+        if (separator <= 0) {
+            return;
+        }
+
+        String tagKey = tagKey(localKey.substring(0, separator));
+        try {
+            stringRedisTemplate.opsForSet().add(tagKey, localKey);
+            // Outlive the entries it lists; refreshed on every add
+            stringRedisTemplate.expire(tagKey, policy.ttl().isZero() ? DEFAULT_TAG_TTL : policy.ttl());
+        } catch (Exception e) {
+            log.warn("Failed to tag {} key {}: {}", name, localKey, e.getMessage());
+        }
+    }
+
+    private String tagKey(String tag) {
+        return TAG_PREFIX + name + ":" + tag;
+    }
+
+    private boolean tryLock(String localKey, String token) {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                    .setIfAbsent(LOCK_PREFIX + remoteKey(localKey), token, policy.lockTimeout()));
+        } catch (Exception e) {
+            // Without Redis there is nothing to coordinate on; load locally
+            log.warn("Failed to acquire loader lock for {} key {}: {}", name, localKey, e.getMessage());
+            return true;
+        }
+    }
+
+    private void unlock(String localKey, String token) {
+        try {
+            stringRedisTemplate.execute(RELEASE_LOCK, List.of(LOCK_PREFIX + remoteKey(localKey)), token);
+        } catch (Exception e) {
+            log.warn("Failed to release loader lock for {} key {}: {}", name, localKey, e.getMessage());
+        }
+    }
+
+    private LocalEntry newEntry(Object value) {
+        long now = System.currentTimeMillis();
+        return new LocalEntry(toStoreValue(value), policy.refreshAt(now, policy.ttl().toMillis()));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for cache loader", e);
+        }
+    }
+
+    public long getLocalHits() {
+        return localHits.sum();
+    }
+
+    public long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    public long getPuts() {
+        return puts.sum();
+    }
+
+    public long getLoadSuccesses() {
+        return loadSuccesses.sum();
+    }
+
+    public long getLoadFailures() {
+        return loadFailures.sum();
+    }
+
+    public long getLoadSuccessNanos() {
+        return loadSuccessNanos.sum();
+    }
+
+    public long getLoadFailureNanos() {
+        return loadFailureNanos.sum();
+    }
+
+    public long getLocalSize() {
+        return local.estimatedSize();
+    }
+
+    public long getLocalEvictions() {
+        return local.stats().evictionCount();
+    }
+
+    // Redis keys are the String form of the cache key, so the same form identifies L1 entries
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    // Matches the default "cacheName::" prefix of the Redis cache configuration
+    private String remoteKey(String localKey) {
+        return name + "::" + localKey;
+    }
+
+    record LocalEntry(Object storeValue, long refreshAt) {
+
+        LocalEntry postponeRefresh(long millis) {
+            return new LocalEntry(storeValue, System.currentTimeMillis() + millis);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ecommerce.analytics.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps every cache of the Redis cache manager in a {@link TwoTierCache}. Evictions are
+ * published on a Redis channel and applied to the L1 tier of every other node. Per-cache meters
+ * come from {@link TwoTierCacheMetrics}; this binds the shared refresh pool.
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager, MessageListener, MeterBinder {
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidation";
+
+    private static final String CLEAR_ALL = "*";
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Map<String, Duration> localTtls;
+    private final Map<String, CachePolicy> policies;
+    private final Duration defaultLocalTtl;
+    private final long localMaximumSize;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ExecutorService refreshExecutor;
+
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager,
+                               StringRedisTemplate stringRedisTemplate,
+                               Map<String, Duration> localTtls,
+                               Map<String, CachePolicy> policies,
+                               Duration defaultLocalTtl,
+                               long localMaximumSize,
+                               int refreshThreads) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.localTtls = localTtls;
+        this.policies = policies;
+        this.defaultLocalTtl = defaultLocalTtl;
+        this.localMaximumSize = localMaximumSize;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.refreshExecutor = Executors.newFixedThreadPool(refreshThreads, runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    public Collection<TwoTierCache> getCaches() {
+        return caches.values();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(refreshExecutor, "cache-refresh", Tags.empty()).bindTo(registry);
+    }
+
+    private TwoTierCache createCache(String name) {
+        // Caffeine's size-bounded eviction is W-TinyLFU
+        com.github.benmanes.caffeine.cache.Cache<String, TwoTierCache.LocalEntry> local = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtls.getOrDefault(name, defaultLocalTtl))
+                .recordStats()
+                .build();
+        return new TwoTierCache(name, local, remoteCacheManager.getCache(name),
+                policies.getOrDefault(name, CachePolicy.NONE), stringRedisTemplate, refreshExecutor,
+                this::broadcastEviction);
+    }
+
+    private void broadcastEviction(String cacheName, String localKey) {
+        String message = nodeId + "|" + cacheName + "|" + (localKey != null ? localKey : CLEAR_ALL);
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (Exception e) {
+            log.warn("Failed to broadcast cache eviction for {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.evictLocal(CLEAR_ALL.equals(parts[2]) ? null : parts[2]);
+        }
+    }
+}
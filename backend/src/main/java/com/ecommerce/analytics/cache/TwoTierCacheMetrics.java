@@ -0,0 +1,73 @@
+package com.ecommerce.analytics.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Standard cache.gets/puts/evictions/size meters for a {@link TwoTierCache}, plus hits per
+ * tier, background refreshes and loader latency. Hits count either tier; evictions and size
+ * are those of the L1 tier, as Redis expires its entries on its own.
+ */
+public class TwoTierCacheMetrics extends CacheMeterBinder<TwoTierCache> {
+
+    public TwoTierCacheMetrics(TwoTierCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+    }
+
+    @Override
+    protected Long size() {
+        return getCache().getLocalSize();
+    }
+
+    @Override
+    protected long hitCount() {
+        return getCache().getLocalHits() + getCache().getRemoteHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        return getCache().getMisses();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return getCache().getLocalEvictions();
+    }
+
+    @Override
+    protected long putCount() {
+        return getCache().getPuts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cache.tier.hits", getCache(), TwoTierCache::getLocalHits)
+                .tags(getTagsWithCacheName()).tag("tier", "local")
+                .description("Lookups answered by the in-process tier")
+                .register(registry);
+        FunctionCounter.builder("cache.tier.hits", getCache(), TwoTierCache::getRemoteHits)
+                .tags(getTagsWithCacheName()).tag("tier", "remote")
+                .description("Lookups answered by Redis after missing the in-process tier")
+                .register(registry);
+        FunctionCounter.builder("cache.refreshes", getCache(), TwoTierCache::getRefreshes)
+                .tags(getTagsWithCacheName())
+                .description("Entries reloaded in the background before they expired")
+                .register(registry);
+
+        FunctionTimer.builder("cache.load.duration", getCache(), TwoTierCache::getLoadSuccesses,
+                        TwoTierCache::getLoadSuccessNanos, TimeUnit.NANOSECONDS)
+                .tags(getTagsWithCacheName()).tag("result", "success")
+                .description("Time spent computing values on a miss or refresh")
+                .register(registry);
+        FunctionTimer.builder("cache.load.duration", getCache(), TwoTierCache::getLoadFailures,
+                        TwoTierCache::getLoadFailureNanos, TimeUnit.NANOSECONDS)
+                .tags(getTagsWithCacheName()).tag("result", "failure")
+                .description("Time spent computing values on a miss or refresh")
+                .register(registry);
+    }
+}
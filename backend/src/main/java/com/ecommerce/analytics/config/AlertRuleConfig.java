@@ -0,0 +1,94 @@
+package com.ecommerce.analytics.config;
+
+import com.ecommerce.analytics.dto.EventMessage;
+import com.ecommerce.analytics.entity.SalesMetric;
+import com.ecommerce.analytics.repository.SalesMetricRepository;
+import com.ecommerce.analytics.rules.AlertRule;
+import com.ecommerce.analytics.rules.PeriodComparisonRule;
+import com.ecommerce.analytics.rules.RateRule;
+import com.ecommerce.analytics.rules.ThresholdRule;
+import com.ecommerce.analytics.rules.WindowedCounter;
+import com.ecommerce.analytics.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Alert rules evaluated by the rule engine; thresholds and windows come from app.alert-rules.*.
+ */
+@Configuration
+public class AlertRuleConfig {
+
+    private static final Set<String> REFUND_STATUSES = Set.of("returned", "refunded");
+
+    @Bean
+    public AlertRule inventoryLowRule(@Value("${app.alert-rules.inventory-low.threshold:10}") double threshold,
+                                      @Value("${app.alert-rules.inventory-low.suppress-minutes:360}") long suppressMinutes) {
+        return new ThresholdRule("inventory-low", Set.of("INVENTORY_LOW", "PRODUCT_UPDATED"),
+                List.of("inventory", "currentStock"), threshold, Duration.ofMinutes(suppressMinutes),
+                "inventory", "high", "Low Stock Alert");
+    }
+
+    @Bean
+    public AlertRule hourlySalesDropRule(StringRedisTemplate stringRedisTemplate,
+                                         SalesMetricRepository salesMetricRepository,
+                                         @Value("${app.alert-rules.sales-drop.max-drop-ratio:0.3}") double maxDropRatio,
+                                         @Value("${app.alert-rules.sales-drop.min-baseline:100}") double minBaseline,
+                                         @Value("${app.alert-rules.sales-drop.grace-minutes:2}") long graceMinutes) {
+        Duration lookback = Duration.ofDays(7);
+        WindowedCounter hourlySales = new WindowedCounter("hourly-sales", Duration.ofHours(1),
+                lookback.plusDays(1), stringRedisTemplate);
+        return new PeriodComparisonRule("hourly-sales-drop",
+                event -> "ORDER_CREATED".equals(event.getEventType()),
+                event -> numberValue(event, "totalAmount"),
+                hourlySales, lookback, Duration.ofMinutes(graceMinutes), maxDropRatio, minBaseline,
+                hourStart -> hourlySalesFromRollup(salesMetricRepository, hourStart),
+                "performance", "medium", "Hourly Sales Drop");
+    }
+
+    @Bean
+    public AlertRule refundRateRule(StringRedisTemplate stringRedisTemplate,
+                                    @Value("${app.alert-rules.refund-rate.max-rate:0.1}") double maxRate,
+                                    @Value("${app.alert-rules.refund-rate.window-minutes:15}") long windowMinutes,
+                                    @Value("${app.alert-rules.refund-rate.min-orders:20}") long minOrders,
+                                    @Value("${app.alert-rules.refund-rate.suppress-minutes:60}") long suppressMinutes) {
+        Duration window = Duration.ofMinutes(windowMinutes);
+        Duration retention = window.plusMinutes(5);
+        return new RateRule("refund-rate",
+                event -> "ORDER_CREATED".equals(event.getEventType()),
+                event -> event.getEventType().startsWith("ORDER_") && REFUND_STATUSES.contains(status(event)),
+                new WindowedCounter("orders", Duration.ofMinutes(1), retention, stringRedisTemplate),
+                new WindowedCounter("refunds", Duration.ofMinutes(1), retention, stringRedisTemplate),
+                window, maxRate, minOrders, Duration.ofMinutes(suppressMinutes),
+                "returns", "high", "Refund Rate Spike");
+    }
+
+    private static Double hourlySalesFromRollup(SalesMetricRepository salesMetricRepository, long hourStart) {
+        LocalDateTime start = LocalDateTime.ofInstant(Instant.ofEpochMilli(hourStart), ZoneId.systemDefault());
+        List<SalesMetric> rows = salesMetricRepository.findMetricsBetweenDates(SalesRollupService.HOURLY, start, start);
+        return rows.isEmpty() ? null : rows.stream()
+                .map(SalesMetric::getTotalSales)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .doubleValue();
+    }
+
+    private static double numberValue(EventMessage event, String key) {
+        Object value = event.getData() != null ? event.getData().get(key) : null;
+        return value != null ? Double.parseDouble(value.toString()) : 0;
+    }
+
+    private static String status(EventMessage event) {
+        Object value = event.getData() != null ? event.getData().get("status") : null;
+        return value != null ? value.toString().toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -1,5 +1,9 @@
 package com.ecommerce.analytics.config;
 
+import com.ecommerce.analytics.events.EventDeserializer;
+import com.ecommerce.analytics.events.EventSerializer;
+import com.ecommerce.analytics.service.EventRetryRouter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
@@ -11,30 +15,77 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 @Configuration
 @EnableKafka
 public class KafkaConfig {
 
+    private final MeterRegistry meterRegistry;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${app.events.wire-format:binary}")
+    private String eventWireFormat;
+
+    @Value("${app.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${app.kafka.producer.linger-ms:10}")
+    private int lingerMs;
+
+    @Value("${app.kafka.producer.batch-size:65536}")
+    private int producerBatchSize;
+
+    @Value("${app.kafka.batch.concurrency:0}")
+    private int batchConcurrency;
+
+    @Value("${app.kafka.batch.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${app.kafka.batch.fetch-min-bytes:16384}")
+    private int fetchMinBytes;
+
+    @Value("${app.kafka.batch.fetch-max-wait-ms:100}")
+    private int fetchMaxWaitMs;
+
+    public KafkaConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     // Producer Configuration
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, EventSerializer.class);
+        configProps.put(EventSerializer.WIRE_FORMAT_CONFIG, eventWireFormat);
+        // Idempotent, fully acknowledged sends: the producer's own retries never duplicate or reorder a
+        // partition. OutboxRelay hands each key's events over in outbox order; a record the broker rejects
+        // after later events of its key were sent is retried behind them, and relay resends after a
+        // timeout are duplicates, which consumers drop by event id
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize);
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(configProps);
+        // Kafka client metrics (request latency, record errors, batch sizes) for every producer created
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
@@ -49,10 +100,10 @@ public class KafkaConfig {
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.ecommerce.analytics.dto");
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "com.ecommerce.analytics.dto.EventMessage");
-        return new DefaultKafkaConsumerFactory<>(props);
+        // Undecodable records reach the listener with a null value instead of failing the whole poll
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, EventDeserializer.class);
+        return withClientMetrics(new DefaultKafkaConsumerFactory<>(props));
     }
 
     @Bean
@@ -62,6 +113,41 @@ public class KafkaConfig {
         return factory;
     }
 
+    // Batch consumption: one listener call per poll, offsets committed by the listener once the batch is handled
+    @Bean
+    public ConsumerFactory<String, Object> batchConsumerFactory() {
+        Map<String, Object> props = new HashMap<>(consumerFactory().getConfigurationProperties());
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, fetchMaxWaitMs);
+        return withClientMetrics(new DefaultKafkaConsumerFactory<>(props));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(batchConcurrency > 0 ? batchConcurrency : maxPartitions());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    // Kafka client metrics for every consumer created, including per-partition records-lag
+    private ConsumerFactory<String, Object> withClientMetrics(DefaultKafkaConsumerFactory<String, Object> factory) {
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
+    }
+
+    // One consumer thread per partition of the widest topic; extra threads would sit idle
+    private int maxPartitions() {
+        return Stream.of(orderEventsTopic(), productEventsTopic(), alertEventsTopic(), analyticsEventsTopic())
+                .mapToInt(NewTopic::numPartitions)
+                .max()
+                .orElse(1);
+    }
+
     // Topics Configuration
     @Bean
     public NewTopic orderEventsTopic() {
@@ -82,4 +168,17 @@ public class KafkaConfig {
     public NewTopic analyticsEventsTopic() {
         return new NewTopic("analytics-events", 3, (short) 1);
     }
-}
\ No newline at end of file
+
+    // Retry tiers and dead-letter topic for every source topic, partitioned like the widest source
+    @Bean
+    public KafkaAdmin.NewTopics retryTopics() {
+        List<NewTopic> topics = new ArrayList<>();
+        for (String source : EventRetryRouter.SOURCE_TOPICS) {
+            for (int tier = 1; tier <= EventRetryRouter.RETRY_TIERS; tier++) {
+                topics.add(new NewTopic(EventRetryRouter.retryTopic(source, tier), maxPartitions(), (short) 1));
+            }
+            topics.add(new NewTopic(EventRetryRouter.deadLetterTopic(source), maxPartitions(), (short) 1));
+        }
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
+}
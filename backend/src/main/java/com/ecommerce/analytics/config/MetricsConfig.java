@@ -0,0 +1,56 @@
+package com.ecommerce.analytics.config;
+
+import com.ecommerce.analytics.cache.TwoTierCache;
+import com.ecommerce.analytics.cache.TwoTierCacheMetrics;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.binder.commonspool2.CommonsObjectPool2Metrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Meters not covered by Boot's auto-configuration. Hikari pool, Tomcat, JVM and Spring Data
+ * repository timers are bound by Actuator; histograms are switched on in application.yml.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final KeyValue NO_HANDLER = KeyValue.of("handler", "none");
+
+    // Tags http.server.requests with the controller method, e.g. DashboardController.getMetrics
+    @Bean
+    public ServerRequestObservationConvention serverRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context).and(handler(context));
+            }
+        };
+    }
+
+    @Bean
+    public CacheMeterBinderProvider<TwoTierCache> twoTierCacheMeterBinderProvider() {
+        return TwoTierCacheMetrics::new;
+    }
+
+    // Jedis pools register with JMX; this reads active, idle and waiting connections from there
+    @Bean
+    public CommonsObjectPool2Metrics commonsObjectPool2Metrics() {
+        return new CommonsObjectPool2Metrics();
+    }
+
+    private static KeyValue handler(ServerRequestObservationContext context) {
+        if (context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE)
+                instanceof HandlerMethod handlerMethod) {
+            return KeyValue.of("handler",
+                    handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName());
+        }
+        return NO_HANDLER;
+    }
+}
@@ -1,16 +1,23 @@
 package com.ecommerce.analytics.config;
 
+import com.ecommerce.analytics.cache.CacheCodec;
+import com.ecommerce.analytics.cache.CachePolicy;
+import com.ecommerce.analytics.cache.TwoTierCacheManager;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
@@ -26,14 +33,35 @@ public class RedisConfig {
     @Value("${spring.redis.port:6379}")
     private int redisPort;
 
-    @Value("${cache.ttl.dashboard-metrics:300}")
-    private long dashboardMetricsTtl;
-
     @Value("${cache.ttl.product-metrics:600}")
     private long productMetricsTtl;
 
-    @Value("${cache.ttl.sales-data:180}")
-    private long salesDataTtl;
+    @Value("${app.cache.l1.maximum-size:10000}")
+    private long localMaximumSize;
+
+    @Value("${app.cache.l1.max-ttl-seconds:60}")
+    private long localMaxTtl;
+
+    @Value("${app.cache.codec.default:binary-lz4}")
+    private String defaultCodec;
+
+    @Value("${app.cache.codec.product-metrics:binary-lz4}")
+    private String productMetricsCodec;
+
+    @Value("${app.cache.codec.compression-threshold-bytes:1024}")
+    private int compressionThreshold;
+
+    @Value("${app.cache.refresh-threads:2}")
+    private int refreshThreads;
+
+    @Value("${app.cache.lock-timeout-ms:10000}")
+    private long lockTimeoutMs;
+
+    @Value("${app.cache.product-metrics.single-flight:true}")
+    private boolean productMetricsSingleFlight;
+
+    @Value("${app.cache.product-metrics.refresh-ahead:0.8}")
+    private double productMetricsRefreshAhead;
 
     @Bean
     public RedisConnectionFactory connectionFactory() {
@@ -56,31 +84,63 @@ public class RedisConfig {
     }
 
     @Bean
-    public CacheManager cacheManager() {
+    public RedisCacheManager redisCacheManager() {
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofSeconds(300))
-                .serializeKeysWith(org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair
+                .serializeKeysWith(RedisSerializationContext.SerializationPair
                         .fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer()));
+                .serializeValuesWith(valueSerializer(defaultCodec));
 
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
         
-        // Dashboard metrics cache - 5 minutes
-        cacheConfigurations.put("dashboardMetrics", 
-                defaultConfig.entryTtl(Duration.ofSeconds(dashboardMetricsTtl)));
-        
         // Product metrics cache - 10 minutes
         cacheConfigurations.put("productMetrics", 
-                defaultConfig.entryTtl(Duration.ofSeconds(productMetricsTtl)));
-        
-        // Sales data cache - 3 minutes
-        cacheConfigurations.put("salesData", 
-                defaultConfig.entryTtl(Duration.ofSeconds(salesDataTtl)));
+                defaultConfig.entryTtl(Duration.ofSeconds(productMetricsTtl))
+                        .serializeValuesWith(valueSerializer(productMetricsCodec)));
+
+        // Alerts cache - default TTL; declared so its meters are bound at startup
+        cacheConfigurations.put("alerts", defaultConfig);
 
+        // Statistics feed the L2 cache.gets meters tagged cacheManager=redis
         return RedisCacheManager.builder(connectionFactory())
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
+                .enableStatistics()
                 .build();
     }
-}
\ No newline at end of file
+
+    // Near cache in front of Redis; local entries never outlive the Redis TTL or the L1 cap
+    @Bean
+    @Primary
+    public TwoTierCacheManager cacheManager() {
+        Duration maxLocalTtl = Duration.ofSeconds(localMaxTtl);
+        Map<String, Duration> localTtls = new HashMap<>();
+        localTtls.put("productMetrics", min(Duration.ofSeconds(productMetricsTtl), maxLocalTtl));
+
+        Duration lockTimeout = Duration.ofMillis(lockTimeoutMs);
+        Map<String, CachePolicy> policies = new HashMap<>();
+        policies.put("productMetrics", new CachePolicy(Duration.ofSeconds(productMetricsTtl),
+                productMetricsSingleFlight, productMetricsRefreshAhead, lockTimeout));
+
+        StringRedisTemplate stringRedisTemplate = new StringRedisTemplate(connectionFactory());
+        return new TwoTierCacheManager(redisCacheManager(), stringRedisTemplate, localTtls, policies,
+                min(Duration.ofSeconds(300), maxLocalTtl), localMaximumSize, refreshThreads);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(TwoTierCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory());
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    private RedisSerializationContext.SerializationPair<Object> valueSerializer(String codec) {
+        return RedisSerializationContext.SerializationPair
+                .fromSerializer(CacheCodec.fromName(codec).serializer(compressionThreshold));
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
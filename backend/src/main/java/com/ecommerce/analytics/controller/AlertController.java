@@ -1,17 +1,25 @@
 package com.ecommerce.analytics.controller;
 
 import com.ecommerce.analytics.dto.ApiResponse;
+import com.ecommerce.analytics.dto.CursorPage;
+import com.ecommerce.analytics.dto.MarkAlertsReadRequest;
+import com.ecommerce.analytics.dto.UnreadAlertCountsDTO;
 import com.ecommerce.analytics.entity.Alert;
+import com.ecommerce.analytics.service.AlertPushHub;
 import com.ecommerce.analytics.service.AlertService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -24,15 +32,25 @@ import java.util.List;
 public class AlertController {
 
     private final AlertService alertService;
+    private final AlertPushHub alertPushHub;
 
     @GetMapping
-    @Operation(summary = "Get all alerts", description = "Retrieve paginated list of all alerts")
+    @Operation(summary = "Get all alerts", description = "Retrieve alerts newest first. Pass 'cursor' (empty for the first page) to page by seek cursor without a total count")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Page<Alert>>> getAllAlerts(
+    public ResponseEntity<ApiResponse<?>> getAllAlerts(
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size) {
-        Page<Alert> alerts = alertService.getAllAlerts(page, size);
-        return ResponseEntity.ok(ApiResponse.success(alerts));
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Seek cursor from the previous page's nextCursor") @RequestParam(required = false) String cursor) {
+        if (cursor == null) {
+            Page<Alert> alerts = alertService.getAllAlerts(page, size);
+            return ResponseEntity.ok(ApiResponse.success(alerts));
+        }
+        try {
+            CursorPage<Alert> alerts = alertService.getAlertsAfter(cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(alerts));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
     }
 
     @GetMapping("/unread")
@@ -75,6 +93,26 @@ public class AlertController {
         }
     }
 
+    @PostMapping("/mark-read")
+    @Operation(summary = "Mark alerts as read", description = "Mark unread alerts matching all given criteria (ids, severity, type, created before) as read in one update")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> markAlertsAsRead(@Valid @RequestBody MarkAlertsReadRequest request) {
+        try {
+            int updated = alertService.markAsRead(request);
+            return ResponseEntity.ok(ApiResponse.success(updated + " alerts marked as read", updated));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/acknowledge-all")
+    @Operation(summary = "Acknowledge all alerts", description = "Mark every unread alert as read in one update")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> acknowledgeAllAlerts() {
+        int updated = alertService.acknowledgeAll();
+        return ResponseEntity.ok(ApiResponse.success(updated + " alerts marked as read", updated));
+    }
+
     @GetMapping("/count/unread")
     @Operation(summary = "Get unread alerts count", description = "Get the count of unread alerts")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
@@ -82,4 +120,23 @@ public class AlertController {
         Long count = alertService.getUnreadAlertsCount();
         return ResponseEntity.ok(ApiResponse.success(count));
     }
+
+    @GetMapping("/count/unread/breakdown")
+    @Operation(summary = "Get unread alerts count by severity and type", description = "Get the unread alert count in total, per severity and per type")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<UnreadAlertCountsDTO>> getUnreadAlertCounts() {
+        UnreadAlertCountsDTO counts = alertService.getUnreadAlertCounts();
+        return ResponseEntity.ok(ApiResponse.success(counts));
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream alerts", description = "Server-sent events for new alerts (alert), unread count changes (unread-count) and buffer overflows (resync)")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<SseEmitter> streamAlerts() {
+        try {
+            return ResponseEntity.ok(alertPushHub.subscribe());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
 }
\ No newline at end of file
@@ -5,13 +5,16 @@ import com.ecommerce.analytics.dto.DashboardMetricsDTO;
 import com.ecommerce.analytics.dto.SalesChartDTO;
 import com.ecommerce.analytics.service.DashboardService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -33,10 +36,21 @@ public class DashboardController {
     }
 
     @GetMapping("/sales-chart")
-    @Operation(summary = "Get sales chart data", description = "Retrieve sales data for chart visualization")
+    @Operation(summary = "Get sales chart data", description = "Retrieve downsampled sales data for chart visualization")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<List<SalesChartDTO>>> getSalesChart() {
-        List<SalesChartDTO> salesData = dashboardService.getSalesChartData();
-        return ResponseEntity.ok(ApiResponse.success(salesData));
+    public ResponseEntity<ApiResponse<List<SalesChartDTO>>> getSalesChart(
+            @Parameter(description = "Range start (ISO date-time), defaults to 7 days before 'to'")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Range end (ISO date-time), defaults to now")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Bucket size: MINUTE, HOUR or DAY") @RequestParam(defaultValue = "DAY") String bucket,
+            @Parameter(description = "Maximum number of points to return") @RequestParam(defaultValue = "500") int maxPoints) {
+        try {
+            List<SalesChartDTO> salesData = dashboardService.getSalesChartData(from, to, bucket, maxPoints);
+            return ResponseEntity.ok(ApiResponse.success(salesData));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Invalid sales chart query: " + e.getMessage()));
+        }
     }
 }
\ No newline at end of file
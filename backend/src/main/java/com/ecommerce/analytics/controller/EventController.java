@@ -0,0 +1,46 @@
+package com.ecommerce.analytics.controller;
+
+import com.ecommerce.analytics.dto.ApiResponse;
+import com.ecommerce.analytics.service.DeadLetterService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/events")
+@RequiredArgsConstructor
+@Tag(name = "Events", description = "Event pipeline retry and dead-letter APIs")
+@SecurityRequirement(name = "bearerAuth")
+public class EventController {
+
+    private final DeadLetterService deadLetterService;
+
+    @GetMapping("/depths")
+    @Operation(summary = "Get retry and dead-letter depths", description = "Records waiting in each retry tier and dead-letter topic")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> getDepths() {
+        return ResponseEntity.ok(ApiResponse.success(deadLetterService.depths()));
+    }
+
+    @PostMapping("/dead-letters/{topic}/replay")
+    @Operation(summary = "Replay dead-lettered events", description = "Re-publish dead-lettered events onto their source topic, oldest first")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> replay(
+            @Parameter(description = "Source topic, e.g. order-events") @PathVariable String topic,
+            @Parameter(description = "Maximum number of events to replay") @RequestParam(defaultValue = "100") int limit) {
+        try {
+            int replayed = deadLetterService.replay(topic, limit);
+            return ResponseEntity.ok(ApiResponse.success(replayed + " events replayed", replayed));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.analytics.controller;
+
+import com.ecommerce.analytics.dto.ApiResponse;
+import com.ecommerce.analytics.dto.CursorPage;
+import com.ecommerce.analytics.dto.OrderDTO;
+import com.ecommerce.analytics.service.OrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/orders")
+@RequiredArgsConstructor
+@Tag(name = "Orders", description = "Order history APIs")
+@SecurityRequirement(name = "bearerAuth")
+public class OrderController {
+
+    private final OrderService orderService;
+
+    @GetMapping("/customer/{customerId}")
+    @Operation(summary = "Get customer orders", description = "Retrieve a customer's orders newest first. Pass 'cursor' (empty for the first page) to page by seek cursor without a total count")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<?>> getCustomerOrders(
+            @Parameter(description = "Customer ID") @PathVariable Long customerId,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Seek cursor from the previous page's nextCursor") @RequestParam(required = false) String cursor) {
+        if (cursor == null) {
+            Page<OrderDTO> orders = orderService.getCustomerOrders(customerId, page, size);
+            return ResponseEntity.ok(ApiResponse.success(orders));
+        }
+        try {
+            CursorPage<OrderDTO> orders = orderService.getCustomerOrdersAfter(customerId, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(orders));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.ecommerce.analytics.controller;
 
 import com.ecommerce.analytics.dto.ApiResponse;
+import com.ecommerce.analytics.dto.CursorPage;
 import com.ecommerce.analytics.dto.ProductDTO;
+import com.ecommerce.analytics.dto.ProductSuggestionDTO;
+import com.ecommerce.analytics.service.ProductLeaderboard;
 import com.ecommerce.analytics.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,6 +17,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Locale;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -26,22 +30,40 @@ public class ProductController {
     private final ProductService productService;
 
     @GetMapping
-    @Operation(summary = "Get all products", description = "Retrieve paginated list of all active products")
+    @Operation(summary = "Get all products", description = "Retrieve active products. Pass 'cursor' (empty for the first page) to page by seek cursor without a total count")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<Page<ProductDTO>>> getAllProducts(
+    public ResponseEntity<ApiResponse<?>> getAllProducts(
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size) {
-        Page<ProductDTO> products = productService.getAllProducts(page, size);
-        return ResponseEntity.ok(ApiResponse.success(products));
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Seek cursor from the previous page's nextCursor") @RequestParam(required = false) String cursor) {
+        if (cursor == null) {
+            Page<ProductDTO> products = productService.getAllProducts(page, size).toPage();
+            return ResponseEntity.ok(ApiResponse.success(products));
+        }
+        try {
+            CursorPage<ProductDTO> products = productService.getProductsAfter(cursor, size);
+            return ResponseEntity.ok(ApiResponse.success(products));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
     }
 
     @GetMapping("/top-selling")
     @Operation(summary = "Get top selling products", description = "Retrieve list of top selling products")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<List<ProductDTO>>> getTopSellingProducts(
-            @Parameter(description = "Number of products to return") @RequestParam(defaultValue = "10") int limit) {
-        List<ProductDTO> products = productService.getTopSellingProducts(limit);
-        return ResponseEntity.ok(ApiResponse.success(products));
+            @Parameter(description = "Number of products to return") @RequestParam(defaultValue = "10") int limit,
+            @Parameter(description = "Time window: TODAY, LAST_7_DAYS, LAST_30_DAYS or ALL_TIME") @RequestParam(defaultValue = "ALL_TIME") String window,
+            @Parameter(description = "Ranking metric: REVENUE or UNITS") @RequestParam(defaultValue = "REVENUE") String metric) {
+        try {
+            List<ProductDTO> products = productService.getTopSellingProducts(limit,
+                    ProductLeaderboard.Window.valueOf(window.toUpperCase(Locale.ROOT)),
+                    ProductLeaderboard.Metric.valueOf(metric.toUpperCase(Locale.ROOT)));
+            return ResponseEntity.ok(ApiResponse.success(products));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Invalid leaderboard query: " + e.getMessage()));
+        }
     }
 
     @GetMapping("/low-stock")
@@ -54,7 +76,7 @@ public class ProductController {
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search products", description = "Search products by name")
+    @Operation(summary = "Search products", description = "Search products by name or SKU, closest names first")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Page<ProductDTO>>> searchProducts(
             @Parameter(description = "Search query") @RequestParam String q,
@@ -63,4 +85,14 @@ public class ProductController {
         Page<ProductDTO> products = productService.searchProducts(q, page, size);
         return ResponseEntity.ok(ApiResponse.success(products));
     }
+
+    @GetMapping("/autocomplete")
+    @Operation(summary = "Autocomplete products", description = "Suggest products whose name words or SKU start with the query")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<ProductSuggestionDTO>>> autocomplete(
+            @Parameter(description = "Search prefix") @RequestParam String q,
+            @Parameter(description = "Maximum number of suggestions") @RequestParam(defaultValue = "10") int limit) {
+        List<ProductSuggestionDTO> suggestions = productService.autocomplete(q, Math.min(limit, 50));
+        return ResponseEntity.ok(ApiResponse.success(suggestions));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.ecommerce.analytics.dto;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Cache form of an unsorted Page; PageImpl has no constructor Jackson can read it back through
+public record CachedPage<T>(List<T> content, int number, int size, long totalElements) {
+
+    public static <T> CachedPage<T> of(Page<T> page) {
+        // Page content is an unmodifiable view, which typed cache codecs cannot recreate
+        return new CachedPage<>(new ArrayList<>(page.getContent()), page.getNumber(), page.getSize(),
+                page.getTotalElements());
+    }
+
+    public Page<T> toPage() {
+        return new PageImpl<>(content, PageRequest.of(number, size), totalElements);
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -16,4 +17,5 @@ public class DashboardMetricsDTO {
     private BigDecimal averageOrderValue;
     private Double conversionRate;
     private Integer unreadAlerts;
+    private List<String> staleWidgets;
 }
\ No newline at end of file
@@ -11,6 +11,7 @@ import java.util.Map;
 @NoArgsConstructor
 @AllArgsConstructor
 public class EventMessage {
+    private String eventId;
     private String eventType;
     private String entityType;
     private Long entityId;
@@ -0,0 +1,23 @@
+package com.ecommerce.analytics.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class MarkAlertsReadRequest {
+    @Size(max = 1000, message = "At most 1000 ids per request")
+    private List<Long> ids;
+    
+    private String severity;
+    
+    private String type;
+    
+    private LocalDateTime before;
+    
+    public boolean hasCriteria() {
+        return (ids != null && !ids.isEmpty()) || severity != null || type != null || before != null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.analytics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderDTO {
+    private Long id;
+    private Long customerId;
+    private BigDecimal totalAmount;
+    private String status;
+    private LocalDateTime orderDate;
+    private LocalDateTime shippedDate;
+    private LocalDateTime deliveredDate;
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
@@ -21,4 +22,7 @@ public class ProductDTO {
     private Integer reviewCount;
     private BigDecimal totalRevenue;
     private Integer unitsSold;
+    private LocalDateTime lastSaleAt;
+    private Double velocity7d;
+    private Double velocity30d;
 }
\ No newline at end of file
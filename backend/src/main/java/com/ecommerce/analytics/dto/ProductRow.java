@@ -0,0 +1,22 @@
+package com.ecommerce.analytics.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Flat product projection joined with its sales stats; category and vendor names are resolved in memory
+public record ProductRow(
+        Long id,
+        String name,
+        String sku,
+        BigDecimal price,
+        Integer inventory,
+        Long categoryId,
+        Long vendorId,
+        BigDecimal rating,
+        Integer reviewCount,
+        Long unitsSold,
+        BigDecimal grossRevenue,
+        LocalDateTime lastSaleAt,
+        Long units7d,
+        Long units30d) {
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.analytics.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnreadAlertCountsDTO {
+    private Long total;
+    private Map<String, Long> bySeverity;
+    private Map<String, Long> byType;
+}
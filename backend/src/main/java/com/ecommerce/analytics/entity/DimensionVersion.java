@@ -0,0 +1,21 @@
+package com.ecommerce.analytics.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "dimension_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DimensionVersion {
+    
+    @Id
+    private String name;
+    
+    @NotNull
+    private Long version = 0L;
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.analytics.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "product_sales_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesStats {
+    
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+    
+    @Column(name = "units_sold")
+    private Long unitsSold = 0L;
+    
+    @Column(name = "gross_revenue", precision = 14, scale = 2)
+    private BigDecimal grossRevenue = BigDecimal.ZERO;
+    
+    @Column(name = "last_sale_at")
+    private LocalDateTime lastSaleAt;
+    
+    @Column(name = "units_7d")
+    private Long units7d = 0L;
+    
+    @Column(name = "units_30d")
+    private Long units30d = 0L;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
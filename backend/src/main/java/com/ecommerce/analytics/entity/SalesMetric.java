@@ -20,11 +20,15 @@ public class SalesMetric {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @NotNull
+    @Column(length = 10)
+    private String granularity = "DAY";
+    
     @NotNull
     private LocalDateTime date;
     
     @NotNull
-    @Column(name = "total_sales", precision = 10, scale = 2)
+    @Column(name = "total_sales", precision = 14, scale = 2)
     private BigDecimal totalSales;
     
     @NotNull
@@ -0,0 +1,54 @@
+package com.ecommerce.analytics.events;
+
+import com.ecommerce.analytics.dto.EventMessage;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Single-alert events (ALERT_CREATED, ALERT_READ) fill alertType, severity and title; bulk
+ * ALERTS_READ fills count and the per-severity and per-type breakdowns.
+ */
+public record AlertEvent(String eventId, String eventType, Long alertId, String alertType, String severity, String title,
+                         Integer count, Map<String, Long> severities, Map<String, Long> alertTypes,
+                         LocalDateTime timestamp, String source) implements DomainEvent {
+
+    @Override
+    public Long entityId() {
+        return alertId;
+    }
+
+    @Override
+    public EventMessage toMessage() {
+        Map<String, Object> data = new HashMap<>();
+        EventFields.put(data, "alertType", alertType);
+        EventFields.put(data, "severity", severity);
+        EventFields.put(data, "title", title);
+        EventFields.put(data, "count", count);
+        EventFields.put(data, "severities", severities);
+        EventFields.put(data, "alertTypes", alertTypes);
+        return new EventMessage(eventId, eventType, "ALERT", alertId, data, timestamp, source);
+    }
+
+    static AlertEvent from(EventMessage message) {
+        return new AlertEvent(message.getEventId(), message.getEventType(), message.getEntityId(),
+                EventFields.string(message, "alertType"),
+                EventFields.string(message, "severity"),
+                EventFields.string(message, "title"),
+                EventFields.intValue(EventFields.value(message, "count")),
+                counts(EventFields.value(message, "severities")),
+                counts(EventFields.value(message, "alertTypes")),
+                message.getTimestamp(), message.getSource());
+    }
+
+    private static Map<String, Long> counts(Object value) {
+        if (!(value instanceof Map<?, ?> raw)) {
+            return null;
+        }
+        Map<String, Long> counts = new TreeMap<>();
+        raw.forEach((k, v) -> counts.put(String.valueOf(k), EventFields.longValue(v)));
+        return counts;
+    }
+}
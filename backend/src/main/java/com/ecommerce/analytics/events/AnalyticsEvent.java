@@ -0,0 +1,27 @@
+package com.ecommerce.analytics.events;
+
+import com.ecommerce.analytics.dto.EventMessage;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Analytics events are free-form metric payloads, so they keep a map body.
+ */
+public record AnalyticsEvent(String eventId, String eventType, Map<String, Object> data,
+                             LocalDateTime timestamp, String source) implements DomainEvent {
+
+    @Override
+    public Long entityId() {
+        return null;
+    }
+
+    @Override
+    public EventMessage toMessage() {
+        return new EventMessage(eventId, eventType, "ANALYTICS", null, data, timestamp, source);
+    }
+
+    static AnalyticsEvent from(EventMessage message) {
+        return new AnalyticsEvent(message.getEventId(), message.getEventType(), message.getData(), message.getTimestamp(), message.getSource());
+    }
+}
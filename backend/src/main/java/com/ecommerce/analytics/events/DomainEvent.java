@@ -0,0 +1,26 @@
+package com.ecommerce.analytics.events;
+
+import com.ecommerce.analytics.dto.EventMessage;
+
+import java.time.LocalDateTime;
+
+/**
+ * Typed Kafka event. Each implementation is one schema family in {@link EventSchema}; components
+ * may be added over time but never renamed or re-typed.
+ */
+public sealed interface DomainEvent permits OrderEvent, ProductEvent, AlertEvent, AnalyticsEvent {
+
+    // Stamped once by the producer; null on events from producers that predate schema version 2
+    String eventId();
+
+    String eventType();
+
+    Long entityId();
+
+    LocalDateTime timestamp();
+
+    String source();
+
+    // Map-based view for collaborators that still work on EventMessage
+    EventMessage toMessage();
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.analytics.events;
+
+import com.ecommerce.analytics.dto.EventMessage;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads events written by {@link EventSerializer} in either format. Binary events decode straight
+ * into their typed record; anything else is treated as legacy EventMessage JSON and mapped onto
+ * the matching record, so producers that have not migrated keep working.
+ */
+public class EventDeserializer implements Deserializer<DomainEvent> {
+
+    @Override
+    public DomainEvent deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try {
+            if (data.length >= EventSerializer.HEADER_LENGTH && data[0] == EventSerializer.MAGIC) {
+                EventSchema schema = EventSchema.forId(data[1]);
+                if (schema == null) {
+                    throw new SerializationException("Unknown event schema id " + data[1] + " on topic " + topic);
+                }
+                if (data[2] < 1) {
+                    throw new SerializationException("Unknown " + schema + " schema version " + data[2] + " on topic " + topic);
+                }
+                // Versions start at 1; any of them decodes: unknown components are skipped and missing ones stay null
+                return EventSerializer.SMILE.readValue(data, EventSerializer.HEADER_LENGTH,
+                        data.length - EventSerializer.HEADER_LENGTH, schema.type());
+            }
+            return EventSchema.fromMessage(EventSerializer.JSON.readValue(data, EventMessage.class));
+        } catch (IOException e) {
+            throw new SerializationException("Could not read event from topic " + topic + ": " + e.getMessage(), e);
+        }
+    }
+}
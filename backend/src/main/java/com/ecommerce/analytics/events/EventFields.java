@@ -0,0 +1,48 @@
+package com.ecommerce.analytics.events;
+
+import com.ecommerce.analytics.dto.EventMessage;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Lenient readers for legacy EventMessage data maps, whose values arrive as whatever type the
+ * producing JSON happened to use.
+ */
+final class EventFields {
+
+    private EventFields() {
+    }
+
+    static Object value(EventMessage message, String key) {
+        return message.getData() != null ? message.getData().get(key) : null;
+    }
+
+    static String string(EventMessage message, String key) {
+        Object value = value(message, key);
+        return value != null ? value.toString() : null;
+    }
+
+    static BigDecimal decimal(Object value) {
+        return value != null ? new BigDecimal(value.toString()) : null;
+    }
+
+    static Long longValue(Object value) {
+        return value != null ? Long.valueOf(value.toString()) : null;
+    }
+
+    static Integer intValue(Object value) {
+        return value != null ? Integer.valueOf(value.toString()) : null;
+    }
+
+    static LocalDateTime dateTime(Object value) {
+        return value != null ? LocalDateTime.parse(value.toString()) : null;
+    }
+
+    static void put(Map<String, Object> data, String key, Object value) {
+        if (value != null) {
+            data.put(key, value);
+        }
+    }
+}
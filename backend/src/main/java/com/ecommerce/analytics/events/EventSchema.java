@@ -0,0 +1,78 @@
+package com.ecommerce.analytics.events;
+
+import com.ecommerce.analytics.dto.EventMessage;
+
+import java.util.function.Function;
+
+/**
+ * Compiled-in registry of event schemas, so producers and consumers agree without a schema
+ * server. The binary header carries the schema id and the writer's version. Compatibility rules:
+ * <ul>
+ *   <li>a new version may only add nullable components; renaming or re-typing one needs a new schema id</li>
+ *   <li>readers ignore components they do not know, so older consumers read newer events (forward)</li>
+ *   <li>components missing from older events decode as null, so newer consumers read older events (backward)</li>
+ * </ul>
+ * Ids are never reused; bump {@code version} whenever a component is added. Version 2 added
+ * {@code eventId} to every schema.
+ */
+public enum EventSchema {
+    ORDER(1, 2, "ORDER", OrderEvent.class, OrderEvent::from),
+    PRODUCT(2, 2, "PRODUCT", ProductEvent.class, ProductEvent::from),
+    ALERT(3, 2, "ALERT", AlertEvent.class, AlertEvent::from),
+    ANALYTICS(4, 2, "ANALYTICS", AnalyticsEvent.class, AnalyticsEvent::from);
+
+    private final byte id;
+    private final byte version;
+    private final String entityType;
+    private final Class<? extends DomainEvent> type;
+    private final Function<EventMessage, DomainEvent> fromMessage;
+
+    EventSchema(int id, int version, String entityType, Class<? extends DomainEvent> type,
+                Function<EventMessage, DomainEvent> fromMessage) {
+        this.id = (byte) id;
+        this.version = (byte) version;
+        this.entityType = entityType;
+        this.type = type;
+        this.fromMessage = fromMessage;
+    }
+
+    public byte id() {
+        return id;
+    }
+
+    public byte version() {
+        return version;
+    }
+
+    public Class<? extends DomainEvent> type() {
+        return type;
+    }
+
+    public static EventSchema forId(byte id) {
+        for (EventSchema schema : values()) {
+            if (schema.id == id) {
+                return schema;
+            }
+        }
+        return null;
+    }
+
+    public static EventSchema of(DomainEvent event) {
+        for (EventSchema schema : values()) {
+            if (schema.type == event.getClass()) {
+                return schema;
+            }
+        }
+        throw new IllegalArgumentException("No schema registered for " + event.getClass().getSimpleName());
+    }
+
+    // Legacy map-based messages are routed by entity type; anything unrecognised is an analytics event
+    public static DomainEvent fromMessage(EventMessage message) {
+        for (EventSchema schema : values()) {
+            if (schema.entityType.equals(message.getEntityType())) {
+                return schema.fromMessage.apply(message);
+            }
+        }
+        return ANALYTICS.fromMessage.apply(message);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.analytics.events;
+
+import com.ecommerce.analytics.dto.EventMessage;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Kafka value serializer for domain events. The binary format is a three byte header (magic,
+ * schema id, schema version) followed by the typed record in headerless Smile. With
+ * {@code app.events.wire-format=json} it writes the legacy EventMessage JSON instead, for rolling
+ * out producers before every consumer understands the binary format. Raw byte arrays pass through
+ * untouched, so parked records that never decoded can still be forwarded.
+ */
+public class EventSerializer implements Serializer<Object> {
+
+    public static final String WIRE_FORMAT_CONFIG = "app.events.wire-format";
+
+    static final byte MAGIC = (byte) 0xE7;
+    static final int HEADER_LENGTH = 3;
+
+    static final ObjectMapper SMILE = new ObjectMapper(SmileFactory.builder()
+            .disable(SmileGenerator.Feature.WRITE_HEADER)
+            .disable(SmileParser.Feature.REQUIRE_HEADER)
+            .build())
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    static final ObjectMapper JSON = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private boolean legacyJson;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(WIRE_FORMAT_CONFIG);
+        legacyJson = format != null && "json".equals(format.toString().trim().toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (data instanceof byte[] raw) {
+            return raw;
+        }
+        DomainEvent event = data instanceof EventMessage message ? EventSchema.fromMessage(message) : (DomainEvent) data;
+        try {
+            if (legacyJson) {
+                return JSON.writeValueAsBytes(event.toMessage());
+            }
+            EventSchema schema = EventSchema.of(event);
+            byte[] payload = SMILE.writeValueAsBytes(event);
+            return ByteBuffer.allocate(HEADER_LENGTH + payload.length)
+                    .put(MAGIC).put(schema.id()).put(schema.version())
+                    .put(payload)
+                    .array();
+        } catch (IOException e) {
+            throw new SerializationException("Could not write " + event.eventType() + " event: " + e.getMessage(), e);
+        }
+    }
+}
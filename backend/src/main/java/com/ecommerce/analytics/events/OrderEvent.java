@@ -0,0 +1,76 @@
+package com.ecommerce.analytics.events;
+
+import com.ecommerce.analytics.dto.EventMessage;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public record OrderEvent(String eventId, String eventType, Long orderId, Long customerId, String status, BigDecimal totalAmount,
+                         BigDecimal amountDelta, LocalDateTime orderDate, List<Item> items,
+                         LocalDateTime timestamp, String source) implements DomainEvent {
+
+    public record Item(Long productId, Integer quantity, BigDecimal unitPrice) {
+    }
+
+    @Override
+    public Long entityId() {
+        return orderId;
+    }
+
+    // Falls back to the event time for producers that do not send an order date
+    public LocalDateTime effectiveOrderDate() {
+        if (orderDate != null) {
+            return orderDate;
+        }
+        return timestamp != null ? timestamp : LocalDateTime.now();
+    }
+
+    @Override
+    public EventMessage toMessage() {
+        Map<String, Object> data = new HashMap<>();
+        EventFields.put(data, "customerId", customerId);
+        EventFields.put(data, "status", status);
+        EventFields.put(data, "totalAmount", totalAmount);
+        EventFields.put(data, "amountDelta", amountDelta);
+        EventFields.put(data, "orderDate", orderDate != null ? orderDate.toString() : null);
+        if (items != null) {
+            List<Map<String, Object>> rawItems = new ArrayList<>(items.size());
+            for (Item item : items) {
+                Map<String, Object> rawItem = new HashMap<>();
+                EventFields.put(rawItem, "productId", item.productId());
+                EventFields.put(rawItem, "quantity", item.quantity());
+                EventFields.put(rawItem, "unitPrice", item.unitPrice());
+                rawItems.add(rawItem);
+            }
+            data.put("items", rawItems);
+        }
+        return new EventMessage(eventId, eventType, "ORDER", orderId, data, timestamp, source);
+    }
+
+    // Legacy events carry their line items as a list of {productId, quantity, unitPrice} maps
+    static OrderEvent from(EventMessage message) {
+        List<Item> items = null;
+        if (EventFields.value(message, "items") instanceof List<?> rawItems) {
+            items = new ArrayList<>(rawItems.size());
+            for (Object raw : rawItems) {
+                if (raw instanceof Map<?, ?> item && item.get("productId") != null) {
+                    Integer quantity = EventFields.intValue(item.get("quantity"));
+                    BigDecimal unitPrice = EventFields.decimal(item.get("unitPrice"));
+                    items.add(new Item(EventFields.longValue(item.get("productId")),
+                            quantity != null ? quantity : 1, unitPrice != null ? unitPrice : BigDecimal.ZERO));
+                }
+            }
+        }
+        return new OrderEvent(message.getEventId(), message.getEventType(), message.getEntityId(),
+                EventFields.longValue(EventFields.value(message, "customerId")),
+                EventFields.string(message, "status"),
+                EventFields.decimal(EventFields.value(message, "totalAmount")),
+                EventFields.decimal(EventFields.value(message, "amountDelta")),
+                EventFields.dateTime(EventFields.value(message, "orderDate")),
+                items, message.getTimestamp(), message.getSource());
+    }
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.analytics.events;
+
+import com.ecommerce.analytics.dto.EventMessage;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+public record ProductEvent(String eventId, String eventType, Long productId, String name, String sku, BigDecimal price,
+                           Integer inventory, Integer currentStock,
+                           LocalDateTime timestamp, String source) implements DomainEvent {
+
+    @Override
+    public Long entityId() {
+        return productId;
+    }
+
+    @Override
+    public EventMessage toMessage() {
+        Map<String, Object> data = new HashMap<>();
+        EventFields.put(data, "name", name);
+        EventFields.put(data, "sku", sku);
+        EventFields.put(data, "price", price);
+        EventFields.put(data, "inventory", inventory);
+        EventFields.put(data, "currentStock", currentStock);
+        return new EventMessage(eventId, eventType, "PRODUCT", productId, data, timestamp, source);
+    }
+
+    static ProductEvent from(EventMessage message) {
+        return new ProductEvent(message.getEventId(), message.getEventType(), message.getEntityId(),
+                EventFields.string(message, "name"),
+                EventFields.string(message, "sku"),
+                EventFields.decimal(EventFields.value(message, "price")),
+                EventFields.intValue(EventFields.value(message, "inventory")),
+                EventFields.intValue(EventFields.value(message, "currentStock")),
+                message.getTimestamp(), message.getSource());
+    }
+}
@@ -4,10 +4,13 @@ import com.ecommerce.analytics.entity.Alert;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -25,6 +28,28 @@ public interface AlertRepository extends JpaRepository<Alert, Long> {
     @Query("SELECT a FROM Alert a ORDER BY a.createdAt DESC")
     Page<Alert> findAllOrderByCreatedAtDesc(Pageable pageable);
     
+    @Query("SELECT a FROM Alert a ORDER BY a.createdAt DESC, a.id DESC")
+    List<Alert> findLatest(Pageable pageable);
+    
+    // Seeks past (createdAt, id); the leading range keeps it on the (created_at, id) index
+    @Query("""
+        SELECT a FROM Alert a 
+        WHERE a.createdAt <= :createdAt AND (a.createdAt < :createdAt OR a.id < :id) 
+        ORDER BY a.createdAt DESC, a.id DESC
+    """)
+    List<Alert> findLatestAfter(@Param("createdAt") LocalDateTime createdAt,
+                               @Param("id") Long id,
+                               Pageable pageable);
+    
     @Query("SELECT COUNT(a) FROM Alert a WHERE a.isRead = false")
     Long countUnreadAlerts();
+    
+    @Query("SELECT a.severity, a.type, COUNT(a) FROM Alert a WHERE a.isRead = false GROUP BY a.severity, a.type")
+    List<Object[]> countUnreadBySeverityAndType();
+    
+    // Returns 0 when the alert was already read, so callers adjust counters only once
+    @Modifying
+    @Transactional
+    @Query("UPDATE Alert a SET a.isRead = true WHERE a.id = :id AND a.isRead = false")
+    int markAsRead(@Param("id") Long id);
 }
\ No newline at end of file
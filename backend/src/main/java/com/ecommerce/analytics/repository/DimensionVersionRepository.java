@@ -0,0 +1,13 @@
+package com.ecommerce.analytics.repository;
+
+import com.ecommerce.analytics.entity.DimensionVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DimensionVersionRepository extends JpaRepository<DimensionVersion, String> {
+    
+    @Query("SELECT COALESCE(SUM(d.version), 0) FROM DimensionVersion d")
+    Long sumVersions();
+}
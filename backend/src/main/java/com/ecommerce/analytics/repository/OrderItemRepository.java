@@ -0,0 +1,35 @@
+package com.ecommerce.analytics.repository;
+
+import com.ecommerce.analytics.entity.OrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+    
+    // Rows of (epoch day, product id, revenue, units)
+    @Query(value = """
+        SELECT CAST(EXTRACT(EPOCH FROM date_trunc('day', o.order_date)) / 86400 AS BIGINT) AS day,
+               oi.product_id,
+               SUM(oi.quantity * oi.unit_price),
+               SUM(oi.quantity)
+        FROM order_items oi
+        JOIN orders o ON o.id = oi.order_id
+        WHERE o.order_date >= :startDate
+        GROUP BY 1, 2
+    """, nativeQuery = true)
+    List<Object[]> sumProductSalesByDaySince(@Param("startDate") LocalDateTime startDate);
+    
+    // Rows of (product id, revenue, units)
+    @Query("""
+        SELECT oi.productId, SUM(oi.quantity * oi.unitPrice), SUM(oi.quantity) 
+        FROM OrderItem oi 
+        GROUP BY oi.productId
+    """)
+    List<Object[]> sumProductSales();
+}
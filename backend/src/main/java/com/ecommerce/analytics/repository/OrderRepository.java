@@ -17,8 +17,25 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     Page<Order> findByCustomerId(Long customerId, Pageable pageable);
     
+    @Query("SELECT o FROM Order o WHERE o.customerId = :customerId ORDER BY o.orderDate DESC, o.id DESC")
+    List<Order> findLatestByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+    
+    @Query("""
+        SELECT o FROM Order o 
+        WHERE o.customerId = :customerId 
+          AND o.orderDate <= :orderDate AND (o.orderDate < :orderDate OR o.id < :id) 
+        ORDER BY o.orderDate DESC, o.id DESC
+    """)
+    List<Order> findLatestByCustomerIdAfter(@Param("customerId") Long customerId,
+                                           @Param("orderDate") LocalDateTime orderDate,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+    
     List<Order> findByStatus(String status);
     
+    @Query("SELECT MAX(o.id) FROM Order o")
+    Long findMaxId();
+    
     @Query("SELECT COUNT(o) FROM Order o WHERE o.orderDate >= :startDate AND o.orderDate <= :endDate")
     Long countOrdersBetweenDates(@Param("startDate") LocalDateTime startDate, 
                                 @Param("endDate") LocalDateTime endDate);
@@ -31,6 +48,10 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     BigDecimal averageOrderValueBetweenDates(@Param("startDate") LocalDateTime startDate, 
                                            @Param("endDate") LocalDateTime endDate);
     
+    @Query("SELECT o.id, o.totalAmount FROM Order o WHERE o.orderDate >= :startDate AND o.orderDate <= :endDate")
+    List<Object[]> findOrderAmountsBetweenDates(@Param("startDate") LocalDateTime startDate,
+                                                @Param("endDate") LocalDateTime endDate);
+    
     @Query("""
         SELECT o FROM Order o 
         WHERE o.orderDate >= :startDate AND o.orderDate <= :endDate 
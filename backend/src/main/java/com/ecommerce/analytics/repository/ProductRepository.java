@@ -1,5 +1,6 @@
 package com.ecommerce.analytics.repository;
 
+import com.ecommerce.analytics.dto.ProductRow;
 import com.ecommerce.analytics.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,29 +9,65 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     
-    @Query("SELECT p FROM Product p WHERE p.isActive = true")
-    Page<Product> findActiveProducts(Pageable pageable);
+    @Query(value = """
+        SELECT new com.ecommerce.analytics.dto.ProductRow(
+            p.id, p.name, p.sku, p.price, p.inventory, p.categoryId, p.vendorId, p.rating, p.reviewCount,
+            s.unitsSold, s.grossRevenue, s.lastSaleAt, s.units7d, s.units30d) 
+        FROM Product p LEFT JOIN ProductSalesStats s ON s.productId = p.id WHERE p.isActive = true
+    """, countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isActive = true")
+    Page<ProductRow> findActiveProducts(Pageable pageable);
     
     @Query("""
-        SELECT p FROM Product p 
-        JOIN OrderItem oi ON p.id = oi.productId 
-        GROUP BY p.id 
-        ORDER BY SUM(oi.quantity * oi.unitPrice) DESC
+        SELECT new com.ecommerce.analytics.dto.ProductRow(
+            p.id, p.name, p.sku, p.price, p.inventory, p.categoryId, p.vendorId, p.rating, p.reviewCount,
+            s.unitsSold, s.grossRevenue, s.lastSaleAt, s.units7d, s.units30d) 
+        FROM Product p LEFT JOIN ProductSalesStats s ON s.productId = p.id 
+        WHERE p.isActive = true AND p.id > :afterId ORDER BY p.id
     """)
-    List<Product> findTopSellingProducts(Pageable pageable);
+    List<ProductRow> findActiveProductsAfter(@Param("afterId") Long afterId, Pageable pageable);
     
-    @Query("SELECT p FROM Product p WHERE p.inventory < :threshold AND p.isActive = true")
-    List<Product> findLowStockProducts(@Param("threshold") Integer threshold);
+    @Query("""
+        SELECT new com.ecommerce.analytics.dto.ProductRow(
+            p.id, p.name, p.sku, p.price, p.inventory, p.categoryId, p.vendorId, p.rating, p.reviewCount,
+            s.unitsSold, s.grossRevenue, s.lastSaleAt, s.units7d, s.units30d) 
+        FROM Product p LEFT JOIN ProductSalesStats s ON s.productId = p.id WHERE p.inventory < :threshold AND p.isActive = true
+    """)
+    List<ProductRow> findLowStockProducts(@Param("threshold") Integer threshold);
+    
+    @Query("""
+        SELECT new com.ecommerce.analytics.dto.ProductRow(
+            p.id, p.name, p.sku, p.price, p.inventory, p.categoryId, p.vendorId, p.rating, p.reviewCount,
+            s.unitsSold, s.grossRevenue, s.lastSaleAt, s.units7d, s.units30d) 
+        FROM Product p LEFT JOIN ProductSalesStats s ON s.productId = p.id WHERE p.id IN :ids
+    """)
+    List<ProductRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
     
     List<Product> findByCategoryIdAndIsActiveTrue(Long categoryId);
     
     List<Product> findByVendorIdAndIsActiveTrue(Long vendorId);
     
-    @Query("SELECT p FROM Product p WHERE p.name ILIKE %:name% AND p.isActive = true")
-    Page<Product> findByNameContainingIgnoreCase(@Param("name") String name, Pageable pageable);
+    // Served by the trigram indexes from V6; closest names rank first. The pattern is the query with
+    // its LIKE wildcards escaped by backslash, wrapped in %
+    @Query(value = """
+        SELECT new com.ecommerce.analytics.dto.ProductRow(
+            p.id, p.name, p.sku, p.price, p.inventory, p.categoryId, p.vendorId, p.rating, p.reviewCount,
+            s.unitsSold, s.grossRevenue, s.lastSaleAt, s.units7d, s.units30d) 
+        FROM Product p LEFT JOIN ProductSalesStats s ON s.productId = p.id 
+        WHERE (p.name ILIKE :pattern ESCAPE '\\' OR p.sku ILIKE :pattern ESCAPE '\\') AND p.isActive = true 
+        ORDER BY FUNCTION('similarity', p.name, :query) DESC, p.id
+    """, countQuery = """
+        SELECT COUNT(p) FROM Product p 
+        WHERE (p.name ILIKE :pattern ESCAPE '\\' OR p.sku ILIKE :pattern ESCAPE '\\') AND p.isActive = true
+    """)
+    Page<ProductRow> searchActiveProducts(@Param("pattern") String pattern, @Param("query") String query,
+                                          Pageable pageable);
+    
+    @Query("SELECT p.id, p.name, p.sku FROM Product p WHERE p.isActive = true")
+    List<Object[]> findActiveSearchFields();
 }
\ No newline at end of file
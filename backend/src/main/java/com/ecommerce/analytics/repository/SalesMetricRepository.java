@@ -2,6 +2,7 @@ package com.ecommerce.analytics.repository;
 
 import com.ecommerce.analytics.entity.SalesMetric;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,13 +13,84 @@ import java.util.List;
 @Repository
 public interface SalesMetricRepository extends JpaRepository<SalesMetric, Long> {
     
-    @Query("SELECT sm FROM SalesMetric sm WHERE sm.date >= :startDate AND sm.date <= :endDate ORDER BY sm.date ASC")
-    List<SalesMetric> findMetricsBetweenDates(@Param("startDate") LocalDateTime startDate, 
+    @Query("""
+        SELECT sm FROM SalesMetric sm 
+        WHERE sm.granularity = :granularity AND sm.date >= :startDate AND sm.date <= :endDate 
+        ORDER BY sm.date ASC
+    """)
+    List<SalesMetric> findMetricsBetweenDates(@Param("granularity") String granularity,
+                                            @Param("startDate") LocalDateTime startDate, 
                                             @Param("endDate") LocalDateTime endDate);
     
+    @Query("""
+        SELECT sm.date, sm.totalSales, sm.totalOrders, sm.averageOrderValue FROM SalesMetric sm 
+        WHERE sm.granularity = :granularity AND sm.date >= :date 
+        ORDER BY sm.date ASC
+    """)
+    List<Object[]> findSeriesRowsFromDate(@Param("granularity") String granularity,
+                                          @Param("date") LocalDateTime date);
+    
+    @Modifying
+    @Query("DELETE FROM SalesMetric sm WHERE sm.granularity = :granularity AND sm.date < :date")
+    int deleteByGranularityAndDateBefore(@Param("granularity") String granularity,
+                                         @Param("date") LocalDateTime date);
+    
     @Query("SELECT sm FROM SalesMetric sm ORDER BY sm.date DESC")
     List<SalesMetric> findLatestMetrics();
     
     @Query("SELECT sm FROM SalesMetric sm WHERE sm.date >= :date ORDER BY sm.date DESC")
     List<SalesMetric> findMetricsFromDate(@Param("date") LocalDateTime date);
+    
+    // Recomputes every bucket touched by orders in (fromOrderId, toOrderId], so late orders reopen old buckets,
+    // plus every bucket from :since on, which picks up status changes and orders committed behind the watermark
+    @Modifying
+    @Query(value = """
+        WITH touched AS (
+            SELECT date_trunc(:unit, o.order_date) AS bucket
+            FROM orders o
+            WHERE o.id > :fromOrderId AND o.id <= :toOrderId
+            UNION
+            SELECT date_trunc(:unit, o.order_date)
+            FROM orders o
+            WHERE o.order_date >= :since
+        )
+        INSERT INTO sales_metrics (granularity, date, total_sales, total_orders, average_order_value, return_rate, new_customers)
+        SELECT :granularity,
+               t.bucket,
+               SUM(o.total_amount),
+               COUNT(o.id),
+               ROUND(AVG(o.total_amount), 2),
+               ROUND(COUNT(o.id) FILTER (WHERE LOWER(o.status) IN ('returned', 'refunded'))::numeric / COUNT(o.id), 4),
+               (SELECT COUNT(c.id) FROM customers c
+                WHERE c.registration_date >= t.bucket AND c.registration_date < t.bucket + CAST(:step AS interval))
+        FROM touched t
+        JOIN orders o ON o.order_date >= t.bucket AND o.order_date < t.bucket + CAST(:step AS interval)
+        GROUP BY t.bucket
+        ON CONFLICT (granularity, date) DO UPDATE SET
+            total_sales = EXCLUDED.total_sales,
+            total_orders = EXCLUDED.total_orders,
+            average_order_value = EXCLUDED.average_order_value,
+            return_rate = EXCLUDED.return_rate,
+            new_customers = EXCLUDED.new_customers
+    """, nativeQuery = true)
+    int rollupOrders(@Param("granularity") String granularity,
+                     @Param("unit") String unit,
+                     @Param("step") String step,
+                     @Param("fromOrderId") Long fromOrderId,
+                     @Param("toOrderId") Long toOrderId,
+                     @Param("since") LocalDateTime since);
+    
+    // The upsert above only reaches buckets that still have orders; a bucket in the re-rolled window whose
+    // orders were all deleted or re-dated would otherwise keep its old totals
+    @Modifying
+    @Query(value = """
+        DELETE FROM sales_metrics sm
+        WHERE sm.granularity = :granularity AND sm.date >= date_trunc(:unit, CAST(:since AS timestamp))
+          AND NOT EXISTS (SELECT 1 FROM orders o
+                          WHERE o.order_date >= sm.date AND o.order_date < sm.date + CAST(:step AS interval))
+    """, nativeQuery = true)
+    int deleteEmptiedBuckets(@Param("granularity") String granularity,
+                             @Param("unit") String unit,
+                             @Param("step") String step,
+                             @Param("since") LocalDateTime since);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.ecommerce.analytics.repository;
+
+import com.ecommerce.analytics.entity.Vendor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface VendorRepository extends JpaRepository<Vendor, Long> {
+}
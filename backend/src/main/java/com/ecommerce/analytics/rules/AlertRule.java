@@ -0,0 +1,28 @@
+package com.ecommerce.analytics.rules;
+
+import com.ecommerce.analytics.dto.EventMessage;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A rule evaluated against the live event streams. Per-event checks run in {@link #onEvent};
+ * windowed checks accumulate into {@link WindowedCounter}s and are evaluated on the engine's
+ * tick. Alerts for the same rule and key are suppressed for {@link #suppression()}.
+ */
+public interface AlertRule {
+
+    String name();
+
+    Duration suppression();
+
+    default void onEvent(EventMessage event, long eventTimeMillis, AlertSink sink) {
+    }
+
+    default void evaluate(long nowMillis, AlertSink sink) {
+    }
+
+    default List<WindowedCounter> counters() {
+        return List.of();
+    }
+}
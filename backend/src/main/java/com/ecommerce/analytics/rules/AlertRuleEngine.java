@@ -0,0 +1,116 @@
+package com.ecommerce.analytics.rules;
+
+import com.ecommerce.analytics.dto.EventMessage;
+import com.ecommerce.analytics.entity.Alert;
+import com.ecommerce.analytics.service.AlertService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs the configured {@link AlertRule}s against consumed events and on a fixed tick. Raised
+ * alerts are deduplicated per rule and key: locally first, then with a Redis SET NX so only
+ * one node creates the alert within the suppression window.
+ */
+@Service
+@Slf4j
+public class AlertRuleEngine implements AlertSink {
+
+    private static final String FIRED_PREFIX = "alert-rules:fired:";
+
+    private final List<AlertRule> rules;
+    private final AlertService alertService;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final Map<String, Long> suppressedUntil = new ConcurrentHashMap<>();
+
+    public AlertRuleEngine(List<AlertRule> rules, AlertService alertService, StringRedisTemplate stringRedisTemplate) {
+        this.rules = rules;
+        this.alertService = alertService;
+        this.stringRedisTemplate = stringRedisTemplate;
+        log.info("Alert rule engine started with rules {}", rules.stream().map(AlertRule::name).toList());
+    }
+
+    public void onEvent(EventMessage event) {
+        long eventTime = event.getTimestamp() != null
+                ? event.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+        for (AlertRule rule : rules) {
+            try {
+                rule.onEvent(event, eventTime, this);
+            } catch (Exception e) {
+                log.warn("Alert rule {} failed on {} event: {}", rule.name(), event.getEventType(), e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.alert-rules.evaluate-ms:10000}")
+    public void evaluate() {
+        long now = System.currentTimeMillis();
+        for (AlertRule rule : rules) {
+            try {
+                rule.counters().forEach(counter -> counter.flush(now));
+                rule.evaluate(now, this);
+            } catch (Exception e) {
+                log.warn("Alert rule {} failed to evaluate: {}", rule.name(), e.getMessage());
+            }
+        }
+        suppressedUntil.values().removeIf(until -> until <= now);
+    }
+
+    @Override
+    public void raise(AlertRule rule, String key, Alert alert) {
+        String firedKey = rule.name() + ":" + key;
+        long now = System.currentTimeMillis();
+        Long until = suppressedUntil.get(firedKey);
+        if (until != null && until > now) {
+            return;
+        }
+        suppressedUntil.put(firedKey, now + rule.suppression().toMillis());
+
+        boolean first;
+        try {
+            first = Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                    .setIfAbsent(FIRED_PREFIX + firedKey, Long.toString(now), rule.suppression()));
+        } catch (Exception e) {
+            // Local suppression still applies; other nodes may raise the same alert meanwhile
+            log.warn("Alert rule dedup unavailable for {}: {}", firedKey, e.getMessage());
+            first = true;
+        }
+        if (first) {
+            try {
+                alertService.createAlert(alert);
+            } catch (RuntimeException e) {
+                // Nothing was raised, so the next event or evaluation must be free to try again
+                suppressedUntil.remove(firedKey);
+                clearFired(firedKey);
+                throw e;
+            }
+            log.info("Alert rule {} raised alert for {}", rule.name(), key);
+        }
+    }
+
+    @Override
+    public void resolve(AlertRule rule, String key) {
+        String firedKey = rule.name() + ":" + key;
+        // Keys are routed to the node that raised them, so only that node has anything to clear
+        if (suppressedUntil.remove(firedKey) == null) {
+            return;
+        }
+        clearFired(firedKey);
+    }
+
+    private void clearFired(String firedKey) {
+        try {
+            stringRedisTemplate.delete(FIRED_PREFIX + firedKey);
+        } catch (Exception e) {
+            log.warn("Failed to clear alert rule suppression for {}: {}", firedKey, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.analytics.rules;
+
+import com.ecommerce.analytics.entity.Alert;
+
+public interface AlertSink {
+
+    // Creates the alert unless one for the same rule and key was raised within the suppression window
+    void raise(AlertRule rule, String key, Alert alert);
+
+    // Lifts the suppression once the condition clears, so a recurrence alerts again
+    void resolve(AlertRule rule, String key);
+}
@@ -0,0 +1,113 @@
+package com.ecommerce.analytics.rules;
+
+import com.ecommerce.analytics.dto.EventMessage;
+import com.ecommerce.analytics.entity.Alert;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compares each closed tumbling bucket against the same bucket one lookback earlier, e.g.
+ * hourly sales against the same hour last week, and alerts on a drop beyond a ratio. When the
+ * baseline bucket predates the in-memory windows it is read once through {@code baselineLoader}.
+ */
+public class PeriodComparisonRule implements AlertRule {
+
+    private final String name;
+    private final Predicate<EventMessage> counted;
+    private final ToDoubleFunction<EventMessage> amount;
+    private final WindowedCounter counter;
+    private final Duration lookback;
+    private final Duration grace;
+    private final double maxDropRatio;
+    private final double minBaseline;
+    private final LongFunction<Double> baselineLoader;
+    private final String alertType;
+    private final String severity;
+    private final String title;
+
+    private volatile long lastEvaluatedBucket = Long.MIN_VALUE;
+
+    public PeriodComparisonRule(String name, Predicate<EventMessage> counted, ToDoubleFunction<EventMessage> amount,
+                                WindowedCounter counter, Duration lookback, Duration grace, double maxDropRatio,
+                                double minBaseline, LongFunction<Double> baselineLoader,
+                                String alertType, String severity, String title) {
+        this.name = name;
+        this.counted = counted;
+        this.amount = amount;
+        this.counter = counter;
+        this.lookback = lookback;
+        this.grace = grace;
+        this.maxDropRatio = maxDropRatio;
+        this.minBaseline = minBaseline;
+        this.baselineLoader = baselineLoader;
+        this.alertType = alertType;
+        this.severity = severity;
+        this.title = title;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    // Each bucket is judged once, so suppression only needs to outlast it
+    @Override
+    public Duration suppression() {
+        return Duration.ofMillis(counter.bucketMillis());
+    }
+
+    @Override
+    public List<WindowedCounter> counters() {
+        return List.of(counter);
+    }
+
+    @Override
+    public void onEvent(EventMessage event, long eventTimeMillis, AlertSink sink) {
+        if (counted.test(event)) {
+            counter.add(eventTimeMillis, amount.applyAsDouble(event));
+        }
+    }
+
+    @Override
+    public void evaluate(long nowMillis, AlertSink sink) {
+        // Judge the last closed bucket once late events have had the grace period to arrive
+        long bucket = counter.bucketStart(nowMillis - grace.toMillis()) - counter.bucketMillis();
+        if (bucket <= lastEvaluatedBucket) {
+            return;
+        }
+        lastEvaluatedBucket = bucket;
+
+        long baselineBucket = bucket - lookback.toMillis();
+        Double baseline = counter.sum(baselineBucket, baselineBucket + counter.bucketMillis());
+        if (baseline == null) {
+            baseline = baselineLoader.apply(baselineBucket);
+        }
+        if (baseline == null || baseline < minBaseline) {
+            return;
+        }
+
+        Double current = counter.sum(bucket, bucket + counter.bucketMillis());
+        double value = current != null ? current : 0;
+        double drop = 1 - value / baseline;
+        if (drop >= maxDropRatio) {
+            LocalDateTime start = LocalDateTime.ofInstant(Instant.ofEpochMilli(bucket), ZoneId.systemDefault());
+            Alert alert = new Alert();
+            alert.setType(alertType);
+            alert.setSeverity(severity);
+            alert.setTitle(title);
+            alert.setMessage(String.format("%.2f for the period starting %s is down %.0f%% from %.2f %d days earlier",
+                    value, start, drop * 100, baseline, lookback.toDays()));
+            alert.setMetadata(Map.of("rule", name, "periodStart", start.toString(), "current", value,
+                    "baseline", baseline, "drop", drop));
+            sink.raise(this, Long.toString(bucket), alert);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.ecommerce.analytics.rules;
+
+import com.ecommerce.analytics.dto.EventMessage;
+import com.ecommerce.analytics.entity.Alert;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Alerts when matching events exceed a share of all counted events over a sliding window,
+ * e.g. refunds > X% of orders in 15 minutes. Windows with too few events are not judged.
+ */
+public class RateRule implements AlertRule {
+
+    private static final String KEY = "global";
+
+    private final String name;
+    private final Predicate<EventMessage> counted;
+    private final Predicate<EventMessage> matching;
+    private final WindowedCounter totals;
+    private final WindowedCounter matches;
+    private final Duration window;
+    private final double maxRate;
+    private final long minEvents;
+    private final Duration suppression;
+    private final String alertType;
+    private final String severity;
+    private final String title;
+
+    public RateRule(String name, Predicate<EventMessage> counted, Predicate<EventMessage> matching,
+                    WindowedCounter totals, WindowedCounter matches, Duration window, double maxRate,
+                    long minEvents, Duration suppression, String alertType, String severity, String title) {
+        this.name = name;
+        this.counted = counted;
+        this.matching = matching;
+        this.totals = totals;
+        this.matches = matches;
+        this.window = window;
+        this.maxRate = maxRate;
+        this.minEvents = minEvents;
+        this.suppression = suppression;
+        this.alertType = alertType;
+        this.severity = severity;
+        this.title = title;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public Duration suppression() {
+        return suppression;
+    }
+
+    @Override
+    public List<WindowedCounter> counters() {
+        return List.of(totals, matches);
+    }
+
+    @Override
+    public void onEvent(EventMessage event, long eventTimeMillis, AlertSink sink) {
+        if (counted.test(event)) {
+            totals.add(eventTimeMillis, 1);
+        }
+        if (matching.test(event)) {
+            matches.add(eventTimeMillis, 1);
+        }
+    }
+
+    @Override
+    public void evaluate(long nowMillis, AlertSink sink) {
+        // The window ends with the current, still-filling bucket
+        long to = totals.bucketStart(nowMillis) + totals.bucketMillis();
+        long from = to - window.toMillis();
+        Double total = totals.sum(from, to);
+        if (total == null || total < minEvents) {
+            return;
+        }
+
+        Double matched = matches.sum(from, to);
+        double rate = matched != null ? matched / total : 0;
+        if (rate > maxRate) {
+            Alert alert = new Alert();
+            alert.setType(alertType);
+            alert.setSeverity(severity);
+            alert.setTitle(title);
+            alert.setMessage(String.format("%.1f%% over the last %d minutes (%d of %d), above the limit of %.1f%%",
+                    rate * 100, window.toMinutes(), Math.round(matched), Math.round(total), maxRate * 100));
+            alert.setMetadata(Map.of("rule", name, "rate", rate, "matched", Math.round(matched),
+                    "total", Math.round(total), "windowMinutes", window.toMinutes()));
+            sink.raise(this, KEY, alert);
+        } else {
+            sink.resolve(this, KEY);
+        }
+    }
+}
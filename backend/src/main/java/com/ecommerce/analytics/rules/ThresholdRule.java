@@ -0,0 +1,81 @@
+package com.ecommerce.analytics.rules;
+
+import com.ecommerce.analytics.dto.EventMessage;
+import com.ecommerce.analytics.entity.Alert;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Alerts per entity when a numeric event field drops below a threshold, e.g. inventory < N.
+ * The first of {@code fields} present in the event data is used; a later value at or above the
+ * threshold resolves the alert.
+ */
+public class ThresholdRule implements AlertRule {
+
+    private final String name;
+    private final Set<String> eventTypes;
+    private final List<String> fields;
+    private final double threshold;
+    private final Duration suppression;
+    private final String alertType;
+    private final String severity;
+    private final String title;
+
+    public ThresholdRule(String name, Set<String> eventTypes, List<String> fields, double threshold,
+                         Duration suppression, String alertType, String severity, String title) {
+        this.name = name;
+        this.eventTypes = eventTypes;
+        this.fields = fields;
+        this.threshold = threshold;
+        this.suppression = suppression;
+        this.alertType = alertType;
+        this.severity = severity;
+        this.title = title;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public Duration suppression() {
+        return suppression;
+    }
+
+    @Override
+    public void onEvent(EventMessage event, long eventTimeMillis, AlertSink sink) {
+        if (!eventTypes.contains(event.getEventType()) || event.getData() == null || event.getEntityId() == null) {
+            return;
+        }
+
+        for (String field : fields) {
+            Object raw = event.getData().get(field);
+            if (raw == null) {
+                continue;
+            }
+            double value = Double.parseDouble(raw.toString());
+            String key = event.getEntityId().toString();
+            if (value < threshold) {
+                Alert alert = new Alert();
+                alert.setType(alertType);
+                alert.setSeverity(severity);
+                alert.setTitle(title);
+                alert.setMessage(String.format("%s %s %s is %s, below the threshold of %s",
+                        event.getEntityType(), key, field, raw, formatNumber(threshold)));
+                alert.setMetadata(Map.of("rule", name, "entityId", event.getEntityId(), field, raw));
+                sink.raise(this, key, alert);
+            } else {
+                sink.resolve(this, key);
+            }
+            return;
+        }
+    }
+
+    private static String formatNumber(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+}
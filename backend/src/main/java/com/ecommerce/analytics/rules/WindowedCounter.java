@@ -0,0 +1,91 @@
+package com.ecommerce.analytics.rules;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Cluster-wide sum over fixed time buckets. Events add to in-memory adders; each engine tick
+ * flushes them into one Redis key per bucket (INCRBYFLOAT, expiring after the retention), so
+ * window sums cover the partitions consumed by every node.
+ */
+@Slf4j
+public class WindowedCounter {
+
+    private static final String KEY_PREFIX = "alert-rules:window:";
+
+    private final String name;
+    private final long bucketMillis;
+    private final Duration retention;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final Map<Long, DoubleAdder> pending = new ConcurrentHashMap<>();
+
+    public WindowedCounter(String name, Duration bucket, Duration retention, StringRedisTemplate stringRedisTemplate) {
+        this.name = name;
+        this.bucketMillis = bucket.toMillis();
+        this.retention = retention;
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    public void add(long timeMillis, double amount) {
+        pending.computeIfAbsent(bucketStart(timeMillis), b -> new DoubleAdder()).add(amount);
+    }
+
+    public long bucketStart(long timeMillis) {
+        return timeMillis - Math.floorMod(timeMillis, bucketMillis);
+    }
+
+    public long bucketMillis() {
+        return bucketMillis;
+    }
+
+    void flush(long nowMillis) {
+        long oldestKept = nowMillis - retention.toMillis();
+        pending.forEach((bucket, adder) -> {
+            double amount = adder.sumThenReset();
+            if (amount != 0 && bucket >= oldestKept) {
+                try {
+                    String key = key(bucket);
+                    stringRedisTemplate.opsForValue().increment(key, amount);
+                    stringRedisTemplate.expire(key, retention);
+                } catch (Exception e) {
+                    // Keep the amount for the next flush
+                    adder.add(amount);
+                    log.warn("Failed to flush alert rule window {}: {}", name, e.getMessage());
+                    return;
+                }
+            }
+            // Buckets two intervals old no longer receive live events
+            if (bucket < bucketStart(nowMillis) - bucketMillis && adder.sum() == 0) {
+                pending.remove(bucket, adder);
+            }
+        });
+    }
+
+    /**
+     * Sums the buckets starting in [fromMillis, toMillis). Returns null when none of them has
+     * been written, which tells "no data" apart from zero.
+     */
+    public Double sum(long fromMillis, long toMillis) {
+        List<String> keys = new ArrayList<>();
+        for (long bucket = bucketStart(fromMillis); bucket < toMillis; bucket += bucketMillis) {
+            keys.add(key(bucket));
+        }
+        List<String> values = stringRedisTemplate.opsForValue().multiGet(keys);
+        if (values == null || values.stream().allMatch(v -> v == null)) {
+            return null;
+        }
+        return values.stream().filter(v -> v != null).mapToDouble(Double::parseDouble).sum();
+    }
+
+    private String key(long bucket) {
+        return KEY_PREFIX + name + ":" + bucket;
+    }
+}
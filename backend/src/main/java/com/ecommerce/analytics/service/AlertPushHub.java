@@ -0,0 +1,358 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.dto.EventMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes alert events and unread-count changes to SSE subscribers. The node that consumes an
+ * alert event relays it over Redis pub/sub so every node reaches its own subscribers. Each
+ * subscriber has a bounded queue drained by a shared dispatcher pool: count updates coalesce
+ * into one pending frame, and on overflow the oldest alerts are dropped and the client is told
+ * to resync. A send blocked past send-timeout-ms drops its subscriber, and the pool gets a stand-in
+ * thread until the blocked write returns, so a few stuck clients cannot starve the rest.
+ */
+@Service
+@Slf4j
+public class AlertPushHub implements MessageListener {
+
+    static final String PUSH_CHANNEL = "alerts:push";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final UnreadAlertCounter unreadAlertCounter;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final long sendTimeoutMs;
+    private final int dispatchThreads;
+    private final int maxStalledSends;
+    private final ThreadPoolExecutor dispatcher;
+    private final AtomicInteger stalledSends = new AtomicInteger();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    public AlertPushHub(StringRedisTemplate stringRedisTemplate,
+                        UnreadAlertCounter unreadAlertCounter,
+                        ObjectMapper objectMapper,
+                        RedisMessageListenerContainer listenerContainer,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.alerts.push.buffer-size:64}") int bufferSize,
+                        @Value("${app.alerts.push.max-subscribers:20000}") int maxSubscribers,
+                        @Value("${app.alerts.push.timeout-ms:1800000}") long timeoutMs,
+                        @Value("${app.alerts.push.dispatch-threads:4}") int dispatchThreads,
+                        @Value("${app.alerts.push.send-timeout-ms:5000}") long sendTimeoutMs,
+                        @Value("${app.alerts.push.max-stalled-sends:64}") int maxStalledSends) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.unreadAlertCounter = unreadAlertCounter;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.dispatchThreads = dispatchThreads;
+        this.maxStalledSends = maxStalledSends;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "alert-push-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        new ExecutorServiceMetrics(dispatcher, "alert-push", Tags.empty()).bindTo(meterRegistry);
+        Gauge.builder("alerts.push.subscribers", subscribers, Set::size)
+                .description("Open alert streams on this node")
+                .register(meterRegistry);
+        Gauge.builder("alerts.push.stalled.sends", stalledSends, AtomicInteger::get)
+                .description("Dispatcher threads blocked on a dropped client's write")
+                .register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(PUSH_CHANNEL));
+    }
+
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Alert stream subscriber limit reached");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        // Start every stream from the current count so clients need no initial poll
+        subscriber.offerCount(0, unreadAlertCounter.total());
+        schedule(subscriber);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Called by the consuming node; the total is read once here rather than per subscriber
+    public void publish(EventMessage event) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("eventType", event.getEventType());
+        message.put("alertId", event.getEntityId());
+        message.put("data", event.getData() != null ? event.getData() : Map.of());
+        message.put("unreadTotal", unreadAlertCounter.total());
+        try {
+            stringRedisTemplate.convertAndSend(PUSH_CHANNEL, objectMapper.writeValueAsString(message));
+        } catch (Exception e) {
+            log.warn("Failed to relay alert event {} to push subscribers: {}", event.getEntityId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Map<?, ?> payload;
+        try {
+            payload = objectMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8), Map.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed alert push message: {}", e.getMessage());
+            return;
+        }
+
+        String eventType = String.valueOf(payload.get("eventType"));
+        long total = ((Number) payload.get("unreadTotal")).longValue();
+        long delta = switch (eventType) {
+            case "ALERT_CREATED" -> 1;
+            case "ALERT_READ" -> -1;
+            case "ALERTS_READ" -> payload.get("data") instanceof Map<?, ?> data && data.get("count") instanceof Number count
+                    ? -count.longValue() : 0;
+            default -> 0;
+        };
+
+        Set<ResponseBodyEmitter.DataWithMediaType> alertFrame = null;
+        if ("ALERT_CREATED".equals(eventType)) {
+            Map<String, Object> alert = new HashMap<>();
+            alert.put("id", payload.get("alertId"));
+            if (payload.get("data") instanceof Map<?, ?> data) {
+                data.forEach((key, value) -> alert.put(String.valueOf(key), value));
+            }
+            alertFrame = frame("alert", alert);
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            if (alertFrame != null) {
+                subscriber.offerAlert(alertFrame);
+            }
+            subscriber.offerCount(delta, total);
+            schedule(subscriber);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.alerts.push.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offerHeartbeat();
+            schedule(subscriber);
+        }
+    }
+
+    // Interrupts sends blocked past the timeout; the blocked thread drops its subscriber once the write returns
+    @Scheduled(fixedDelayString = "${app.alerts.push.stall-check-ms:1000}")
+    public void releaseStalledSends() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.stall(now, TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs))) {
+                subscribers.remove(subscriber);
+                resizeDispatcher();
+                log.debug("Dropping alert stream whose send blocked for over {} ms", sendTimeoutMs);
+            }
+        }
+    }
+
+    private synchronized void resizeDispatcher() {
+        int size = dispatchThreads + Math.min(stalledSends.get(), maxStalledSends);
+        if (size > dispatcher.getMaximumPoolSize()) {
+            dispatcher.setMaximumPoolSize(size);
+            dispatcher.setCorePoolSize(size);
+        } else {
+            dispatcher.setCorePoolSize(size);
+            dispatcher.setMaximumPoolSize(size);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.markScheduled()) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            List<Set<ResponseBodyEmitter.DataWithMediaType>> frames;
+            while (!(frames = subscriber.takeFrames()).isEmpty()) {
+                for (Set<ResponseBodyEmitter.DataWithMediaType> frame : frames) {
+                    if (!send(subscriber, frame)) {
+                        return;
+                    }
+                }
+            }
+        } finally {
+            // Clears an interrupt aimed at a stalled send so it cannot hit the next subscriber's task
+            Thread.interrupted();
+        }
+    }
+
+    // False once the subscriber is gone: the client went away or its send stalled
+    private boolean send(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        if (!subscriber.beginSend()) {
+            return false;
+        }
+        Exception failure = null;
+        try {
+            subscriber.emitter.send(frame);
+        } catch (Exception e) {
+            failure = e;
+        }
+        boolean stalled = subscriber.endSend();
+        if (stalled) {
+            stalledSends.decrementAndGet();
+            resizeDispatcher();
+        }
+        if (failure == null && !stalled) {
+            return true;
+        }
+        subscribers.remove(subscriber);
+        subscriber.emitter.completeWithError(failure != null ? failure
+                : new TimeoutException("Alert stream send blocked for over " + sendTimeoutMs + " ms"));
+        return false;
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> frame(String name, Object data) {
+        try {
+            return SseEmitter.event().name(name).data(objectMapper.writeValueAsString(data)).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode " + name + " frame", e);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final ArrayDeque<Set<ResponseBodyEmitter.DataWithMediaType>> alerts = new ArrayDeque<>();
+        private long pendingDelta;
+        private long pendingTotal = -1;
+        private boolean overflowed;
+        private boolean heartbeatDue;
+        private boolean scheduled;
+        private Thread sender;
+        private long sendStartedAt;
+        private boolean stalled;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void offerAlert(Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+            if (alerts.size() >= bufferSize) {
+                alerts.pollFirst();
+                overflowed = true;
+            }
+            alerts.addLast(frame);
+        }
+
+        synchronized void offerCount(long delta, long total) {
+            pendingDelta += delta;
+            pendingTotal = total;
+        }
+
+        synchronized void offerHeartbeat() {
+            heartbeatDue = true;
+        }
+
+        synchronized boolean markScheduled() {
+            if (scheduled) {
+                return false;
+            }
+            scheduled = true;
+            return true;
+        }
+
+        synchronized boolean beginSend() {
+            if (stalled) {
+                return false;
+            }
+            sender = Thread.currentThread();
+            sendStartedAt = System.nanoTime();
+            return true;
+        }
+
+        // True when the watchdog gave up on this send while it was blocked
+        synchronized boolean endSend() {
+            sender = null;
+            return stalled;
+        }
+
+        synchronized boolean stall(long now, long timeoutNanos) {
+            if (sender == null || stalled || now - sendStartedAt < timeoutNanos) {
+                return false;
+            }
+            stalled = true;
+            stalledSends.incrementAndGet();
+            sender.interrupt();
+            return true;
+        }
+
+        // Hands everything pending to the dispatcher; clears the scheduled flag once empty
+        synchronized List<Set<ResponseBodyEmitter.DataWithMediaType>> takeFrames() {
+            List<Set<ResponseBodyEmitter.DataWithMediaType>> frames = new ArrayList<>(alerts.size() + 2);
+            if (overflowed) {
+                alerts.clear();
+                frames.add(frame("resync", Map.of("reason", "buffer-overflow")));
+                overflowed = false;
+            }
+            frames.addAll(alerts);
+            alerts.clear();
+            if (pendingTotal >= 0) {
+                frames.add(frame("unread-count", Map.of("delta", pendingDelta, "total", pendingTotal)));
+                pendingDelta = 0;
+                pendingTotal = -1;
+            }
+            if (heartbeatDue) {
+                if (frames.isEmpty()) {
+                    frames.add(SseEmitter.event().comment("heartbeat").build());
+                }
+                heartbeatDue = false;
+            }
+            if (frames.isEmpty()) {
+                scheduled = false;
+            }
+            return frames;
+        }
+    }
+}
@@ -1,18 +1,25 @@
 package com.ecommerce.analytics.service;
 
+import com.ecommerce.analytics.dto.CursorPage;
+import com.ecommerce.analytics.dto.MarkAlertsReadRequest;
+import com.ecommerce.analytics.dto.UnreadAlertCountsDTO;
 import com.ecommerce.analytics.entity.Alert;
 import com.ecommerce.analytics.repository.AlertRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +27,9 @@ public class AlertService {
 
     private final AlertRepository alertRepository;
     private final KafkaProducerService kafkaProducerService;
+    private final UnreadAlertCounter unreadAlertCounter;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final CacheInvalidationService cacheInvalidationService;
 
     @Cacheable(value = "alerts", key = "'unread'")
     public List<Alert> getUnreadAlerts() {
@@ -31,45 +41,122 @@ public class AlertService {
         return alertRepository.findAllOrderByCreatedAtDesc(pageable);
     }
 
+    public CursorPage<Alert> getAlertsAfter(String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor);
+        List<Alert> alerts = position == null
+                ? alertRepository.findLatest(PageCursor.probe(size))
+                : alertRepository.findLatestAfter(position.timestamp(), position.id(), PageCursor.probe(size));
+        return PageCursor.page(alerts, size, a -> new PageCursor(a.getCreatedAt(), a.getId()), a -> a);
+    }
+
+    @Cacheable(value = "alerts", key = "'severity:' + #severity")
     public List<Alert> getAlertsBySeverity(String severity) {
         return alertRepository.findBySeverity(severity);
     }
 
+    @Cacheable(value = "alerts", key = "'type:' + #type")
     public List<Alert> getAlertsByType(String type) {
         return alertRepository.findByType(type);
     }
 
-    @CacheEvict(value = "alerts", allEntries = true)
+    @Transactional
     public Alert createAlert(Alert alert) {
         Alert savedAlert = alertRepository.save(alert);
+        unreadAlertCounter.onCreated(savedAlert);
         
-        // Send Kafka event
+        // Queue Kafka event in the same transaction
         Map<String, Object> eventData = new HashMap<>();
         eventData.put("alertType", alert.getType());
         eventData.put("severity", alert.getSeverity());
         eventData.put("title", alert.getTitle());
-        kafkaProducerService.sendAlertEvent("ALERT_CREATED", savedAlert.getId(), eventData);
+        cacheInvalidationService.onCommit(
+                kafkaProducerService.sendAlertEvent("ALERT_CREATED", savedAlert.getId(), eventData));
         
         return savedAlert;
     }
 
-    @CacheEvict(value = "alerts", allEntries = true)
+    @Transactional
     public Alert markAsRead(Long alertId) {
         Alert alert = alertRepository.findById(alertId)
                 .orElseThrow(() -> new RuntimeException("Alert not found"));
         
+        if (alertRepository.markAsRead(alertId) == 1) {
+            unreadAlertCounter.onRead(alert);
+        }
         alert.setIsRead(true);
-        Alert updatedAlert = alertRepository.save(alert);
         
-        // Send Kafka event
+        // Queue Kafka event in the same transaction
         Map<String, Object> eventData = new HashMap<>();
         eventData.put("alertType", alert.getType());
-        kafkaProducerService.sendAlertEvent("ALERT_READ", alertId, eventData);
+        eventData.put("severity", alert.getSeverity());
+        cacheInvalidationService.onCommit(kafkaProducerService.sendAlertEvent("ALERT_READ", alertId, eventData));
         
-        return updatedAlert;
+        return alert;
+    }
+
+    @Transactional
+    public int markAsRead(MarkAlertsReadRequest request) {
+        if (!request.hasCriteria()) {
+            throw new IllegalArgumentException("Specify ids, severity, type or before");
+        }
+
+        StringBuilder where = new StringBuilder();
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            where.append(" AND id IN (:ids)");
+            params.addValue("ids", request.getIds());
+        }
+        if (request.getSeverity() != null) {
+            where.append(" AND severity = :severity");
+            params.addValue("severity", request.getSeverity());
+        }
+        if (request.getType() != null) {
+            where.append(" AND type = :type");
+            params.addValue("type", request.getType());
+        }
+        if (request.getBefore() != null) {
+            where.append(" AND created_at < :before");
+            params.addValue("before", Timestamp.valueOf(request.getBefore()));
+        }
+        return markUnreadAsRead(where.toString(), params);
+    }
+
+    @Transactional
+    public int acknowledgeAll() {
+        return markUnreadAsRead("", new MapSqlParameterSource());
+    }
+
+    // One UPDATE for the whole set; RETURNING gives what the counters and event need. The event
+    // carries counts only, so its size does not grow with the number of alerts marked read
+    private int markUnreadAsRead(String criteria, MapSqlParameterSource params) {
+        Map<String, Long> bySeverity = new TreeMap<>();
+        Map<String, Long> byType = new TreeMap<>();
+        jdbcTemplate.query("UPDATE alerts SET is_read = true WHERE is_read = false" + criteria
+                + " RETURNING severity, type", params, rs -> {
+            bySeverity.merge(rs.getString(1), 1L, Long::sum);
+            byType.merge(rs.getString(2), 1L, Long::sum);
+        });
+        int count = (int) bySeverity.values().stream().mapToLong(Long::longValue).sum();
+        if (count == 0) {
+            return 0;
+        }
+
+        unreadAlertCounter.onBulkRead(count, bySeverity, byType);
+
+        Map<String, Object> eventData = new HashMap<>();
+        eventData.put("count", count);
+        eventData.put("severities", bySeverity);
+        eventData.put("alertTypes", byType);
+        cacheInvalidationService.onCommit(kafkaProducerService.sendAlertEvent("ALERTS_READ", null, eventData));
+
+        return count;
     }
 
     public Long getUnreadAlertsCount() {
-        return alertRepository.countUnreadAlerts();
+        return unreadAlertCounter.total();
+    }
+
+    public UnreadAlertCountsDTO getUnreadAlertCounts() {
+        return unreadAlertCounter.counts();
     }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.cache.TwoTierCache;
+import com.ecommerce.analytics.dto.EventMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps domain events to the cache entries they make stale. Only one node consumes each event;
+ * the two-tier cache broadcasts the resulting evictions to the local tier of the others. The
+ * writing node also applies the same rules as soon as its transaction commits, so its own reads
+ * never wait for the event to come back through Kafka.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationService {
+
+    static final String ALERTS = "alerts";
+    static final String PRODUCT_METRICS = "productMetrics";
+
+    private final CacheManager cacheManager;
+
+    public void onEvent(EventMessage event) {
+        switch (event.getEventType()) {
+            case "ALERT_CREATED", "ALERT_READ" -> {
+                evictKey(ALERTS, "unread");
+                evictKeyOrTag(ALERTS, "severity", dataValue(event, "severity"));
+                evictKeyOrTag(ALERTS, "type", dataValue(event, "alertType"));
+            }
+            case "ALERTS_READ" -> {
+                evictKey(ALERTS, "unread");
+                dataKeys(event, "severities").forEach(severity -> evictKey(ALERTS, "severity:" + severity));
+                dataKeys(event, "alertTypes").forEach(type -> evictKey(ALERTS, "type:" + type));
+            }
+            // Any product change can move it between listing pages
+            case "PRODUCT_CREATED", "PRODUCT_UPDATED", "INVENTORY_LOW" -> evictTag(PRODUCT_METRICS, "all-products");
+            default -> {
+                // No cached view depends on this event
+            }
+        }
+    }
+
+    // Eviction failures are logged; the consumed event evicts again and the TTL bounds the rest
+    public void onCommit(EventMessage event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictQuietly(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictQuietly(event);
+            }
+        });
+    }
+
+    private void evictQuietly(EventMessage event) {
+        try {
+            onEvent(event);
+        } catch (Exception e) {
+            log.warn("Failed to evict caches for {}: {}", event.getEventType(), e.getMessage());
+        }
+    }
+
+    private void evictKey(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    // Evicts one member of a tag group when the event names it, the whole group otherwise
+    private void evictKeyOrTag(String cacheName, String tag, String value) {
+        if (value != null) {
+            evictKey(cacheName, tag + ":" + value);
+        } else {
+            evictTag(cacheName, tag);
+        }
+    }
+
+    private void evictTag(String cacheName, String tag) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache instanceof TwoTierCache twoTierCache) {
+            int evicted = twoTierCache.evictTag(tag);
+            log.debug("Evicted {} entries tagged {} from {}", evicted, tag, cacheName);
+        } else if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private static Set<String> dataKeys(EventMessage event, String key) {
+        Object value = event.getData() != null ? event.getData().get(key) : null;
+        if (!(value instanceof Map<?, ?> map)) {
+            return Set.of();
+        }
+        Set<String> keys = new HashSet<>();
+        map.keySet().forEach(k -> keys.add(String.valueOf(k)));
+        return keys;
+    }
+
+    private static String dataValue(EventMessage event, String key) {
+        Object value = event.getData() != null ? event.getData().get(key) : null;
+        return value != null ? value.toString() : null;
+    }
+}
@@ -2,20 +2,20 @@ package com.ecommerce.analytics.service;
 
 import com.ecommerce.analytics.dto.DashboardMetricsDTO;
 import com.ecommerce.analytics.dto.SalesChartDTO;
-import com.ecommerce.analytics.repository.AlertRepository;
 import com.ecommerce.analytics.repository.CustomerRepository;
 import com.ecommerce.analytics.repository.OrderRepository;
-import com.ecommerce.analytics.repository.SalesMetricRepository;
+import com.ecommerce.analytics.service.DashboardSnapshotBuilder.Widget;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -23,52 +23,59 @@ public class DashboardService {
 
     private final OrderRepository orderRepository;
     private final CustomerRepository customerRepository;
-    private final AlertRepository alertRepository;
-    private final SalesMetricRepository salesMetricRepository;
+    private final UnreadAlertCounter unreadAlertCounter;
+    private final OrderMetricsStore orderMetricsStore;
+    private final DashboardSnapshotBuilder snapshotBuilder;
+    private final SalesTimeSeriesService salesTimeSeriesService;
 
-    @Cacheable(value = "dashboardMetrics", key = "'dashboard-overview'")
     public DashboardMetricsDTO getDashboardMetrics() {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime startOfMonth = now.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
 
-        // Get metrics for current month
-        BigDecimal totalSales = orderRepository.sumTotalAmountBetweenDates(startOfMonth, now);
-        Long totalOrders = orderRepository.countOrdersBetweenDates(startOfMonth, now);
-        Long totalCustomers = customerRepository.count();
-        BigDecimal averageOrderValue = orderRepository.averageOrderValueBetweenDates(startOfMonth, now);
-        Integer unreadAlerts = Math.toIntExact(alertRepository.countUnreadAlerts());
+        // Month-to-date order totals come from the event-fed store; SQL only until it is populated
+        Map<Widget, Supplier<Object>> loaders = new EnumMap<>(Widget.class);
+        loaders.put(Widget.SALES, () -> orderMetricsStore.monthToDate()
+                .map(OrderMetricsStore.MonthToDate::sales)
+                .orElseGet(() -> orderRepository.sumTotalAmountBetweenDates(startOfMonth, now)));
+        loaders.put(Widget.ORDERS, () -> orderMetricsStore.monthToDate()
+                .map(OrderMetricsStore.MonthToDate::orders)
+                .orElseGet(() -> orderRepository.countOrdersBetweenDates(startOfMonth, now)));
+        loaders.put(Widget.AVERAGE_ORDER_VALUE, () -> orderMetricsStore.monthToDate()
+                .map(OrderMetricsStore.MonthToDate::averageOrderValue)
+                .orElseGet(() -> orderRepository.averageOrderValueBetweenDates(startOfMonth, now)));
+        loaders.put(Widget.CUSTOMERS, customerRepository::count);
+        loaders.put(Widget.UNREAD_ALERTS, unreadAlertCounter::total);
+
+        DashboardSnapshotBuilder.Snapshot snapshot = snapshotBuilder.build(loaders);
+        BigDecimal totalSales = snapshot.get(Widget.SALES);
+        Long totalOrders = snapshot.get(Widget.ORDERS);
+        Long totalCustomers = snapshot.get(Widget.CUSTOMERS);
+        BigDecimal averageOrderValue = snapshot.get(Widget.AVERAGE_ORDER_VALUE);
+        Long unreadAlerts = snapshot.get(Widget.UNREAD_ALERTS);
 
         // Format total sales as currency
         NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(Locale.US);
         String formattedTotalSales = totalSales != null ? currencyFormat.format(totalSales) : "$0.00";
 
         // Calculate conversion rate (dummy calculation - would need more complex logic in real app)
-        Double conversionRate = totalOrders != null && totalOrders > 0 ? 
+        Double conversionRate = totalOrders != null && totalOrders > 0 && totalCustomers != null ? 
             (totalCustomers.doubleValue() / totalOrders.doubleValue()) * 100 : 0.0;
 
         return new DashboardMetricsDTO(
             formattedTotalSales,
             totalOrders != null ? totalOrders : 0L,
-            totalCustomers,
+            totalCustomers != null ? totalCustomers : 0L,
             averageOrderValue != null ? averageOrderValue : BigDecimal.ZERO,
             conversionRate,
-            unreadAlerts
+            unreadAlerts != null ? Math.toIntExact(unreadAlerts) : 0,
+            snapshot.staleWidgets()
         );
     }
 
-    @Cacheable(value = "salesData", key = "'sales-chart-7days'")
-    public List<SalesChartDTO> getSalesChartData() {
-        LocalDateTime endDate = LocalDateTime.now();
-        LocalDateTime startDate = endDate.minusDays(7);
+    public List<SalesChartDTO> getSalesChartData(LocalDateTime from, LocalDateTime to, String bucket, int maxPoints) {
+        LocalDateTime endDate = to != null ? to : LocalDateTime.now();
+        LocalDateTime startDate = from != null ? from : endDate.minusDays(7);
 
-        return salesMetricRepository.findMetricsBetweenDates(startDate, endDate)
-                .stream()
-                .map(metric -> new SalesChartDTO(
-                    metric.getDate(),
-                    metric.getTotalSales(),
-                    metric.getTotalOrders(),
-                    metric.getAverageOrderValue()
-                ))
-                .collect(Collectors.toList());
+        return salesTimeSeriesService.getSalesSeries(startDate, endDate, bucket, maxPoints);
     }
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.ecommerce.analytics.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Loads dashboard widgets concurrently under one deadline. Each widget keeps its last good
+ * value: it is served as-is while younger than the widget's staleness budget, and served with
+ * a stale marker when a reload misses the deadline.
+ */
+@Service
+@Slf4j
+public class DashboardSnapshotBuilder {
+
+    public enum Widget {
+        SALES("totalSales"),
+        ORDERS("totalOrders"),
+        CUSTOMERS("totalCustomers"),
+        AVERAGE_ORDER_VALUE("averageOrderValue"),
+        UNREAD_ALERTS("unreadAlerts");
+
+        private final String fieldName;
+
+        Widget(String fieldName) {
+            this.fieldName = fieldName;
+        }
+
+        public String getFieldName() {
+            return fieldName;
+        }
+    }
+
+    private final long deadlineMs;
+    private final Map<Widget, Long> stalenessBudgetMs = new EnumMap<>(Widget.class);
+    private final Map<Widget, WidgetState> states = new EnumMap<>(Widget.class);
+    private final ExecutorService executor;
+
+    public DashboardSnapshotBuilder(MeterRegistry meterRegistry,
+                                    @Value("${app.dashboard.snapshot-deadline-ms:250}") long deadlineMs,
+                                    @Value("${app.dashboard.staleness-ms.sales:1000}") long salesStalenessMs,
+                                    @Value("${app.dashboard.staleness-ms.orders:1000}") long ordersStalenessMs,
+                                    @Value("${app.dashboard.staleness-ms.customers:60000}") long customersStalenessMs,
+                                    @Value("${app.dashboard.staleness-ms.average-order-value:1000}") long aovStalenessMs,
+                                    @Value("${app.dashboard.staleness-ms.unread-alerts:5000}") long unreadAlertsStalenessMs) {
+        this.deadlineMs = deadlineMs;
+        stalenessBudgetMs.put(Widget.SALES, salesStalenessMs);
+        stalenessBudgetMs.put(Widget.ORDERS, ordersStalenessMs);
+        stalenessBudgetMs.put(Widget.CUSTOMERS, customersStalenessMs);
+        stalenessBudgetMs.put(Widget.AVERAGE_ORDER_VALUE, aovStalenessMs);
+        stalenessBudgetMs.put(Widget.UNREAD_ALERTS, unreadAlertsStalenessMs);
+        for (Widget widget : Widget.values()) {
+            states.put(widget, new WidgetState());
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Widget.values().length, runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-widget-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        new ExecutorServiceMetrics(executor, "dashboard-widget", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public Snapshot build(Map<Widget, Supplier<Object>> loaders) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        Map<Widget, Object> values = new EnumMap<>(Widget.class);
+        Map<Widget, CompletableFuture<Object>> pending = new EnumMap<>(Widget.class);
+
+        loaders.forEach((widget, loader) -> {
+            WidgetState state = states.get(widget);
+            if (state.isFresh(stalenessBudgetMs.get(widget))) {
+                values.put(widget, state.value);
+            } else {
+                pending.put(widget, state.refresh(loader, executor));
+            }
+        });
+
+        List<String> staleWidgets = new ArrayList<>();
+        pending.forEach((widget, future) -> {
+            try {
+                values.put(widget, future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException | ExecutionException e) {
+                log.warn("Dashboard widget {} fell back to last good value: {}", widget, e.toString());
+                values.put(widget, states.get(widget).value);
+                staleWidgets.add(widget.getFieldName());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                values.put(widget, states.get(widget).value);
+                staleWidgets.add(widget.getFieldName());
+            }
+        });
+
+        return new Snapshot(values, staleWidgets);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public record Snapshot(Map<Widget, Object> values, List<String> staleWidgets) {
+
+        @SuppressWarnings("unchecked")
+        public <T> T get(Widget widget) {
+            return (T) values.get(widget);
+        }
+    }
+
+    private static final class WidgetState {
+
+        private volatile Object value;
+        private volatile long loadedAtNanos;
+        private volatile boolean loaded;
+        private CompletableFuture<Object> inFlight;
+
+        boolean isFresh(long budgetMs) {
+            return loaded && System.nanoTime() - loadedAtNanos < TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        }
+
+        // A reload still running from an earlier request is joined rather than started again
+        synchronized CompletableFuture<Object> refresh(Supplier<Object> loader, ExecutorService executor) {
+            if (inFlight == null || inFlight.isDone()) {
+                inFlight = CompletableFuture.supplyAsync(loader, executor)
+                        .whenComplete((result, error) -> {
+                            if (error == null) {
+                                value = result;
+                                loadedAtNanos = System.nanoTime();
+                                loaded = true;
+                            }
+                        });
+            }
+            return inFlight;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.ecommerce.analytics.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retry and dead-letter topic housekeeping: depth gauges computed from end offsets against the
+ * committed offsets of the consuming group, and replay of dead-lettered records onto their source
+ * topic. Replay commits its progress under its own group, so dead-letter depth is what has not
+ * been replayed yet.
+ */
+@Service
+@Slf4j
+public class DeadLetterService {
+
+    static final String REPLAY_GROUP = "analytics-dlt-replay";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final long TIMEOUT_MS = 10000;
+
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final Admin admin;
+    private final String groupId;
+
+    private final Map<String, Long> depths = new ConcurrentHashMap<>();
+
+    public DeadLetterService(ConsumerFactory<String, Object> consumerFactory,
+                             KafkaTemplate<String, Object> kafkaTemplate,
+                             KafkaAdmin kafkaAdmin,
+                             MeterRegistry meterRegistry,
+                             @Value("${spring.kafka.consumer.group-id}") String groupId) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.admin = Admin.create(kafkaAdmin.getConfigurationProperties());
+        this.groupId = groupId;
+
+        for (String source : EventRetryRouter.SOURCE_TOPICS) {
+            for (int tier = 1; tier <= EventRetryRouter.RETRY_TIERS; tier++) {
+                registerDepthGauge(meterRegistry, "kafka.retry.depth", EventRetryRouter.retryTopic(source, tier));
+            }
+            registerDepthGauge(meterRegistry, "kafka.dlt.depth", EventRetryRouter.deadLetterTopic(source));
+        }
+    }
+
+    public Map<String, Long> depths() {
+        return new TreeMap<>(depths);
+    }
+
+    // Re-publishes up to limit dead-lettered records onto the source topic. The original position and
+    // the sinks that already applied the event travel along, so the consumer does not apply them twice
+    public synchronized int replay(String sourceTopic, int limit) {
+        if (!EventRetryRouter.SOURCE_TOPICS.contains(sourceTopic)) {
+            throw new IllegalArgumentException("Unknown topic: " + sourceTopic);
+        }
+        String deadLetterTopic = EventRetryRouter.deadLetterTopic(sourceTopic);
+
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.max(1, limit));
+
+        int replayed = 0;
+        try (Consumer<String, Object> consumer = consumerFactory.createConsumer(REPLAY_GROUP, "dlt-replay", null, overrides)) {
+            consumer.assign(consumer.partitionsFor(deadLetterTopic).stream()
+                    .map(p -> new TopicPartition(deadLetterTopic, p.partition()))
+                    .toList());
+
+            while (replayed < limit) {
+                List<ConsumerRecord<String, Object>> batch = new ArrayList<>();
+                consumer.poll(POLL_TIMEOUT).forEach(batch::add);
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                Map<TopicPartition, OffsetAndMetadata> positions = new HashMap<>();
+                List<CompletableFuture<?>> sends = new ArrayList<>();
+                for (ConsumerRecord<String, Object> record : batch) {
+                    if (replayed >= limit) {
+                        break;
+                    }
+                    ProducerRecord<String, Object> replay = new ProducerRecord<>(sourceTopic, record.key(), record.value());
+                    for (String header : EventRetryRouter.REPLAYED_HEADERS) {
+                        Header value = record.headers().lastHeader(header);
+                        if (value != null) {
+                            replay.headers().add(value);
+                        }
+                    }
+                    sends.add(kafkaTemplate.send(replay));
+                    positions.put(new TopicPartition(record.topic(), record.partition()),
+                            new OffsetAndMetadata(record.offset() + 1));
+                    replayed++;
+                }
+                CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                consumer.commitSync(positions);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying " + deadLetterTopic, e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to replay " + deadLetterTopic + ": " + e.getMessage(), e);
+        }
+
+        log.info("Replayed {} dead-lettered events from {} onto {}", replayed, deadLetterTopic, sourceTopic);
+        refreshDepths();
+        return replayed;
+    }
+
+    @Scheduled(fixedDelayString = "${app.kafka.retry.depth-refresh-ms:30000}")
+    public void refreshDepths() {
+        try {
+            List<String> retryTopics = new ArrayList<>();
+            List<String> deadLetterTopics = new ArrayList<>();
+            for (String source : EventRetryRouter.SOURCE_TOPICS) {
+                for (int tier = 1; tier <= EventRetryRouter.RETRY_TIERS; tier++) {
+                    retryTopics.add(EventRetryRouter.retryTopic(source, tier));
+                }
+                deadLetterTopics.add(EventRetryRouter.deadLetterTopic(source));
+            }
+            depths.putAll(lag(groupId, retryTopics));
+            depths.putAll(lag(REPLAY_GROUP, deadLetterTopics));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failed to refresh retry and dead-letter depths: {}", e.getMessage());
+        }
+    }
+
+    // Per-topic lag of a group; partitions it has never committed count from the earliest offset
+    private Map<String, Long> lag(String group, Collection<String> topics) throws Exception {
+        Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+        Map<TopicPartition, OffsetSpec> earliest = new HashMap<>();
+        for (TopicDescription topic : admin.describeTopics(topics).allTopicNames()
+                .get(TIMEOUT_MS, TimeUnit.MILLISECONDS).values()) {
+            topic.partitions().forEach(p -> {
+                TopicPartition tp = new TopicPartition(topic.name(), p.partition());
+                latest.put(tp, OffsetSpec.latest());
+                earliest.put(tp, OffsetSpec.earliest());
+            });
+        }
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends =
+                admin.listOffsets(latest).all().get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> starts =
+                admin.listOffsets(earliest).all().get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(group)
+                .partitionsToOffsetAndMetadata().get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+        Map<String, Long> lag = new HashMap<>();
+        topics.forEach(topic -> lag.put(topic, 0L));
+        ends.forEach((tp, end) -> {
+            OffsetAndMetadata position = committed.get(tp);
+            long from = Math.max(position != null ? position.offset() : 0L, starts.get(tp).offset());
+            lag.merge(tp.topic(), Math.max(0L, end.offset() - from), Long::sum);
+        });
+        return lag;
+    }
+
+    private void registerDepthGauge(MeterRegistry meterRegistry, String name, String topic) {
+        Gauge.builder(name, depths, d -> d.getOrDefault(topic, 0L))
+                .tag("topic", topic)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        admin.close(Duration.ofSeconds(5));
+    }
+}
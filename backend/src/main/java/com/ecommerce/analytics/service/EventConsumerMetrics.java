@@ -0,0 +1,64 @@
+package com.ecommerce.analytics.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Consumer-side meters: per topic and event type handler latency, records consumed and batch
+ * sizes. Consumer lag per partition comes from the Kafka client metrics bound in KafkaConfig.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventConsumerMetrics {
+
+    public enum Outcome {
+        SUCCESS, FAILURE, DUPLICATE;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    public void recordBatch(String listener, List<? extends ConsumerRecord<?, ?>> records) {
+        DistributionSummary.builder("kafka.consumer.batch.size")
+                .description("Records delivered per listener call")
+                .tag("listener", listener)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(records.size());
+
+        Map<String, Integer> perTopic = new HashMap<>();
+        records.forEach(record -> perTopic.merge(record.topic(), 1, Integer::sum));
+        perTopic.forEach((topic, count) -> Counter.builder("kafka.consumer.records")
+                .description("Records consumed")
+                .tag("topic", topic)
+                .register(meterRegistry)
+                .increment(count));
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void recordHandled(Timer.Sample sample, String topic, String eventType, Outcome outcome) {
+        sample.stop(Timer.builder("kafka.consumer.handler")
+                .description("Time spent handling one event")
+                .tag("topic", topic)
+                .tag("event.type", eventType != null ? eventType : "unknown")
+                .tag("outcome", outcome.tag)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,144 @@
+package com.ecommerce.analytics.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Drops events already processed within the dedup window. Processed ids live in Redis with a TTL
+ * of one window and in a local rotating Bloom filter. Events with the same id share a key and so a
+ * partition. For a partition this node has owned for a full window, a filter miss therefore
+ * proves the event is new, and Redis is read only for filter hits, recently assigned partitions
+ * and retried records. Ids are written to Redis once per batch, just before the offset commit.
+ */
+@Service
+@Slf4j
+public class EventDeduplicator {
+
+    private static final String KEY_PREFIX = "events:processed:";
+
+    public record EventKey(String id, TopicPartition partition) {
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long windowMillis;
+    private final RotatingBloomFilter filter;
+    private final Map<TopicPartition, Long> ownedSince = new ConcurrentHashMap<>();
+
+    private volatile long rotatedAt = System.currentTimeMillis();
+
+    public EventDeduplicator(StringRedisTemplate stringRedisTemplate,
+                             @Value("${app.events.dedup.window-ms:300000}") long windowMillis,
+                             @Value("${app.events.dedup.expected-per-window:5000000}") long expectedPerWindow,
+                             @Value("${app.events.dedup.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.windowMillis = windowMillis;
+        this.filter = new RotatingBloomFilter(expectedPerWindow, falsePositiveRate);
+    }
+
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        long now = System.currentTimeMillis();
+        partitions.forEach(tp -> ownedSince.put(tp, now));
+    }
+
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        partitions.forEach(ownedSince::remove);
+    }
+
+    /**
+     * Flags, position by position, keys already processed or repeated earlier in the same batch.
+     * A null id is never a duplicate; a null partition means the local filter alone cannot decide.
+     */
+    public boolean[] findDuplicates(List<EventKey> keys) {
+        long now = System.currentTimeMillis();
+        rotateIfDue(now);
+
+        boolean[] duplicates = new boolean[keys.size()];
+        Set<String> batchIds = new HashSet<>();
+        List<Integer> unresolved = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            EventKey key = keys.get(i);
+            if (key.id() == null) {
+                continue;
+            }
+            if (!batchIds.add(key.id())) {
+                duplicates[i] = true;
+            } else if (filter.mightContain(key.id()) || !ownedForWindow(key.partition(), now)) {
+                unresolved.add(i);
+            }
+        }
+        if (unresolved.isEmpty()) {
+            return duplicates;
+        }
+
+        try {
+            List<Object> seen = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                unresolved.forEach(i -> redis.exists(KEY_PREFIX + keys.get(i).id()));
+                return null;
+            });
+            for (int j = 0; j < unresolved.size(); j++) {
+                if (Boolean.TRUE.equals(seen.get(j))) {
+                    duplicates[unresolved.get(j)] = true;
+                }
+            }
+        } catch (Exception e) {
+            // Fail open: a Redis outage must not stop consumption
+            log.warn("Failed to check {} event ids for duplicates: {}", unresolved.size(), e.getMessage());
+        }
+        return duplicates;
+    }
+
+    public void markProcessed(Collection<String> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        eventIds.forEach(filter::put);
+        try {
+            Expiration ttl = Expiration.milliseconds(windowMillis);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                eventIds.forEach(id -> redis.set(KEY_PREFIX + id, "1", ttl, RedisStringCommands.SetOption.upsert()));
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to record {} processed event ids: {}", eventIds.size(), e.getMessage());
+        }
+    }
+
+    // Remembers an id locally only. A record parked on the retry path is finished on whichever node
+    // owns the retry partition, so a later duplicate here must check Redis first.
+    public void remember(String eventId) {
+        filter.put(eventId);
+    }
+
+    private boolean ownedForWindow(TopicPartition partition, long now) {
+        Long since = partition != null ? ownedSince.get(partition) : null;
+        return since != null && now - since >= windowMillis;
+    }
+
+    private void rotateIfDue(long now) {
+        if (now - rotatedAt >= windowMillis) {
+            synchronized (this) {
+                if (now - rotatedAt >= windowMillis) {
+                    filter.rotate();
+                    rotatedAt = now;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.events.DomainEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parks records whose handler failed so the source partition keeps moving. A failed record goes
+ * to {@code <topic>-retry-1}, then through the later tiers with exponentially growing delays, and
+ * finally to {@code <topic>-dlt}. Headers carry the source position, the attempt number, when
+ * the record becomes due again and the sinks that already applied it, so a retry reruns only the
+ * ones that failed.
+ */
+@Service
+@Slf4j
+public class EventRetryRouter {
+
+    public static final List<String> SOURCE_TOPICS =
+            List.of("order-events", "product-events", "alert-events", "analytics-events");
+    public static final int RETRY_TIERS = 3;
+
+    static final String ORIGINAL_TOPIC = "x-original-topic";
+    static final String ORIGINAL_PARTITION = "x-original-partition";
+    static final String ORIGINAL_OFFSET = "x-original-offset";
+    static final String ATTEMPT = "x-retry-attempt";
+    static final String DUE_AT = "x-retry-due-at";
+    static final String EXCEPTION = "x-exception";
+    static final String COMPLETED_SINKS = "x-completed-sinks";
+
+    // Kept when a dead-lettered record is replayed onto its source topic; the attempt count starts over
+    static final List<String> REPLAYED_HEADERS =
+            List.of(ORIGINAL_TOPIC, ORIGINAL_PARTITION, ORIGINAL_OFFSET, COMPLETED_SINKS);
+
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(EventRetryRouter.class);
+    private static final long FORWARD_TIMEOUT_MS = 10000;
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final long initialBackoffMs;
+    private final double multiplier;
+
+    public EventRetryRouter(KafkaTemplate<String, Object> kafkaTemplate,
+                            @Value("${app.kafka.retry.initial-backoff-ms:1000}") long initialBackoffMs,
+                            @Value("${app.kafka.retry.multiplier:5}") double multiplier) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.initialBackoffMs = initialBackoffMs;
+        this.multiplier = multiplier;
+    }
+
+    public static String retryTopic(String sourceTopic, int tier) {
+        return sourceTopic + "-retry-" + tier;
+    }
+
+    public static String deadLetterTopic(String sourceTopic) {
+        return sourceTopic + "-dlt";
+    }
+
+    // Used by the tier listeners' topic expressions
+    public static String[] retryTopics(int tier) {
+        return SOURCE_TOPICS.stream().map(topic -> retryTopic(topic, tier)).toArray(String[]::new);
+    }
+
+    // Sends the record to its next tier, or to the dead-letter topic once every tier has been tried
+    public void retry(ConsumerRecord<String, DomainEvent> record, Exception cause, Set<String> completedSinks) {
+        int attempt = intHeader(record.headers(), ATTEMPT, 0) + 1;
+        String sourceTopic = sourceTopic(record);
+        if (attempt > RETRY_TIERS) {
+            forward(deadLetterTopic(sourceTopic), record, attempt, 0L, cause, completedSinks);
+            log.error("Event from {}-{}@{} dead-lettered after {} attempts: {}", sourceTopic,
+                    originalPartition(record), originalOffset(record), RETRY_TIERS, cause.getMessage());
+            return;
+        }
+        long delay = (long) (initialBackoffMs * Math.pow(multiplier, attempt - 1));
+        forward(retryTopic(sourceTopic, attempt), record, attempt, System.currentTimeMillis() + delay, cause,
+                completedSinks);
+        log.warn("Event from {}-{}@{} scheduled for retry {} in {} ms: {}", sourceTopic,
+                originalPartition(record), originalOffset(record), attempt, delay, cause.getMessage());
+    }
+
+    // Undecodable records cannot succeed on retry, so they go straight to the dead-letter topic
+    public void deadLetter(ConsumerRecord<String, DomainEvent> record, Exception cause) {
+        forward(deadLetterTopic(sourceTopic(record)), record, intHeader(record.headers(), ATTEMPT, 0), 0L, cause,
+                Set.of());
+        log.error("Event from {}-{}@{} dead-lettered: {}", sourceTopic(record),
+                originalPartition(record), originalOffset(record), cause.getMessage());
+    }
+
+    public DeserializationException deserializationFailure(ConsumerRecord<String, DomainEvent> record) {
+        return SerializationUtils.getExceptionFromHeader(record,
+                SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+    }
+
+    public long remainingDelay(ConsumerRecord<String, DomainEvent> record) {
+        Header dueAt = record.headers().lastHeader(DUE_AT);
+        return dueAt != null ? Long.parseLong(text(dueAt)) - System.currentTimeMillis() : 0L;
+    }
+
+    // Mutable, so the handler can add the sinks it gets through on this attempt
+    public Set<String> completedSinks(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(COMPLETED_SINKS);
+        Set<String> sinks = new LinkedHashSet<>();
+        if (header != null && header.value().length > 0) {
+            sinks.addAll(Arrays.asList(text(header).split(",")));
+        }
+        return sinks;
+    }
+
+    // A record on its source topic that still names an original position came back through replay
+    public boolean isReplay(ConsumerRecord<?, ?> record) {
+        return record.headers().lastHeader(ORIGINAL_TOPIC) != null && record.topic().equals(sourceTopic(record));
+    }
+
+    public String sourceTopic(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(ORIGINAL_TOPIC);
+        return header != null ? text(header) : record.topic();
+    }
+
+    public int originalPartition(ConsumerRecord<?, ?> record) {
+        return intHeader(record.headers(), ORIGINAL_PARTITION, record.partition());
+    }
+
+    public long originalOffset(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(ORIGINAL_OFFSET);
+        return header != null ? Long.parseLong(text(header)) : record.offset();
+    }
+
+    // Blocks until the broker has the copy, so the caller only commits the source offset once it is parked
+    private void forward(String topic, ConsumerRecord<String, DomainEvent> record, int attempt, long dueAt,
+                         Exception cause, Set<String> completedSinks) {
+        Object value = record.value();
+        if (value == null) {
+            DeserializationException failure = deserializationFailure(record);
+            value = failure != null ? failure.getData() : null;
+        }
+
+        ProducerRecord<String, Object> forwarded = new ProducerRecord<>(topic, record.key(), value);
+        Headers headers = forwarded.headers();
+        headers.add(ORIGINAL_TOPIC, bytes(sourceTopic(record)));
+        headers.add(ORIGINAL_PARTITION, bytes(String.valueOf(originalPartition(record))));
+        headers.add(ORIGINAL_OFFSET, bytes(String.valueOf(originalOffset(record))));
+        headers.add(ATTEMPT, bytes(String.valueOf(attempt)));
+        if (dueAt > 0) {
+            headers.add(DUE_AT, bytes(String.valueOf(dueAt)));
+        }
+        headers.add(EXCEPTION, bytes(cause.getClass().getSimpleName() + ": " + cause.getMessage()));
+        if (!completedSinks.isEmpty()) {
+            headers.add(COMPLETED_SINKS, bytes(String.join(",", completedSinks)));
+        }
+
+        try {
+            kafkaTemplate.send(forwarded).get(FORWARD_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while forwarding event to " + topic, e);
+        } catch (Exception e) {
+            throw new KafkaException("Failed to forward event to " + topic, e);
+        }
+    }
+
+    private static int intHeader(Headers headers, String name, int defaultValue) {
+        Header header = headers.lastHeader(name);
+        return header != null ? Integer.parseInt(text(header)) : defaultValue;
+    }
+
+    private static String text(Header header) {
+        return new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
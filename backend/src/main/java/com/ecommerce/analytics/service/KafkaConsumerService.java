@@ -1,109 +1,468 @@
 package com.ecommerce.analytics.service;
 
 import com.ecommerce.analytics.dto.EventMessage;
+import com.ecommerce.analytics.entity.OrderItem;
+import com.ecommerce.analytics.events.AlertEvent;
+import com.ecommerce.analytics.events.AnalyticsEvent;
+import com.ecommerce.analytics.events.DomainEvent;
+import com.ecommerce.analytics.events.OrderEvent;
+import com.ecommerce.analytics.events.ProductEvent;
+import com.ecommerce.analytics.rules.AlertRuleEngine;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class KafkaConsumerService {
-
-    @KafkaListener(topics = "order-events", groupId = "analytics-service")
-    public void consumeOrderEvent(EventMessage event) {
-        log.info("Received order event: {} for order {}", event.getEventType(), event.getEntityId());
-        
-        switch (event.getEventType()) {
-            case "ORDER_CREATED" -> handleOrderCreated(event);
+public class KafkaConsumerService implements ConsumerSeekAware {
+
+    private static final String ORDER_EVENTS_TOPIC = "order-events";
+    private static final String BATCH_CONTAINER_FACTORY = "batchKafkaListenerContainerFactory";
+    private static final long MAX_RETRY_PAUSE_MS = 30000;
+    private static final long PARK_FAILURE_PAUSE_MS = 5000;
+
+    private final OrderMetricsStore orderMetricsStore;
+    private final ProductLeaderboard productLeaderboard;
+    private final ProductSalesStatsService productSalesStatsService;
+    private final ProductSearchIndex productSearchIndex;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final AlertPushHub alertPushHub;
+    private final AlertRuleEngine alertRuleEngine;
+    private final EventRetryRouter eventRetryRouter;
+    private final EventDeduplicator eventDeduplicator;
+    private final EventConsumerMetrics eventConsumerMetrics;
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        eventDeduplicator.onPartitionsAssigned(assignments.keySet());
+        List<Integer> partitions = orderPartitions(assignments.keySet());
+        if (!partitions.isEmpty()) {
+            orderMetricsStore.onPartitionsAssigned(partitions);
+        }
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        eventDeduplicator.onPartitionsRevoked(partitions);
+        List<Integer> revoked = orderPartitions(partitions);
+        if (!revoked.isEmpty()) {
+            orderMetricsStore.onPartitionsRevoked(revoked);
+        }
+    }
+
+    @KafkaListener(topics = ORDER_EVENTS_TOPIC, groupId = "analytics-service",
+            containerFactory = BATCH_CONTAINER_FACTORY)
+    public void consumeOrderEvents(List<ConsumerRecord<String, DomainEvent>> records, Acknowledgment ack) {
+        consumeBatch("order", records, ack);
+    }
+
+    @KafkaListener(topics = "product-events", groupId = "analytics-service",
+            containerFactory = BATCH_CONTAINER_FACTORY)
+    public void consumeProductEvents(List<ConsumerRecord<String, DomainEvent>> records, Acknowledgment ack) {
+        consumeBatch("product", records, ack);
+    }
+
+    @KafkaListener(topics = "alert-events", groupId = "analytics-service",
+            containerFactory = BATCH_CONTAINER_FACTORY)
+    public void consumeAlertEvents(List<ConsumerRecord<String, DomainEvent>> records, Acknowledgment ack) {
+        consumeBatch("alert", records, ack);
+    }
+
+    @KafkaListener(topics = "analytics-events", groupId = "analytics-service",
+            containerFactory = BATCH_CONTAINER_FACTORY)
+    public void consumeAnalyticsEvents(List<ConsumerRecord<String, DomainEvent>> records, Acknowledgment ack) {
+        consumeBatch("analytics", records, ack);
+    }
+
+    // One container per retry tier, so a long delay in a later tier never holds up an earlier one
+    @KafkaListener(topics = "#{T(com.ecommerce.analytics.service.EventRetryRouter).retryTopics(1)}",
+            groupId = "analytics-service", containerFactory = BATCH_CONTAINER_FACTORY)
+    public void consumeRetryTier1(List<ConsumerRecord<String, DomainEvent>> records, Acknowledgment ack) {
+        consumeRetries("retry-1", records, ack);
+    }
+
+    @KafkaListener(topics = "#{T(com.ecommerce.analytics.service.EventRetryRouter).retryTopics(2)}",
+            groupId = "analytics-service", containerFactory = BATCH_CONTAINER_FACTORY)
+    public void consumeRetryTier2(List<ConsumerRecord<String, DomainEvent>> records, Acknowledgment ack) {
+        consumeRetries("retry-2", records, ack);
+    }
+
+    @KafkaListener(topics = "#{T(com.ecommerce.analytics.service.EventRetryRouter).retryTopics(3)}",
+            groupId = "analytics-service", containerFactory = BATCH_CONTAINER_FACTORY)
+    public void consumeRetryTier3(List<ConsumerRecord<String, DomainEvent>> records, Acknowledgment ack) {
+        consumeRetries("retry-3", records, ack);
+    }
+
+    // Failed records are parked on the retry path. If parking itself fails, the handled prefix is
+    // committed and the batch is redelivered from the record that could not be parked
+    private void consumeBatch(String family, List<ConsumerRecord<String, DomainEvent>> records, Acknowledgment ack) {
+        eventConsumerMetrics.recordBatch(family, records);
+        List<String> eventIds = eventIds(records);
+        boolean[] duplicates = eventDeduplicator.findDuplicates(eventKeys(records, eventIds, false));
+        BatchSinks batch = new BatchSinks();
+        List<String> processed = new ArrayList<>();
+        int handled = 0;
+        try {
+            for (; handled < records.size(); handled++) {
+                ConsumerRecord<String, DomainEvent> record = records.get(handled);
+                processOnce(record, eventIds.get(handled), duplicates[handled], eventRetryRouter.isReplay(record),
+                        batch, processed);
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not park failed {} event at offset {}; redelivering from there: {}", family,
+                    records.get(handled).offset(), e.getMessage());
+        }
+        reindex(batch.reindexed);
+        handled = writeSales(family, records, eventIds, handled, batch, processed);
+        eventDeduplicator.markProcessed(processed);
+        if (handled < records.size()) {
+            ack.nack(handled, Duration.ofMillis(PARK_FAILURE_PAUSE_MS));
+        } else {
+            ack.acknowledge();
+        }
+        log.info("Processed {} of {} {} events", handled, records.size(), family);
+    }
+
+    // Records in a tier are due in offset order; the first one not yet due is redelivered after a pause
+    private void consumeRetries(String tier, List<ConsumerRecord<String, DomainEvent>> records, Acknowledgment ack) {
+        List<String> eventIds = eventIds(records);
+        boolean[] duplicates = eventDeduplicator.findDuplicates(eventKeys(records, eventIds, true));
+        BatchSinks batch = new BatchSinks();
+        List<String> processed = new ArrayList<>();
+        int due = 0;
+        long wait = 0;
+        try {
+            for (; due < records.size(); due++) {
+                wait = eventRetryRouter.remainingDelay(records.get(due));
+                if (wait > 0) {
+                    break;
+                }
+                processOnce(records.get(due), eventIds.get(due), duplicates[due], true, batch, processed);
+            }
+        } catch (RuntimeException e) {
+            wait = PARK_FAILURE_PAUSE_MS;
+            log.error("Could not park failed {} event at offset {}; redelivering from there: {}", tier,
+                    records.get(due).offset(), e.getMessage());
+        }
+        reindex(batch.reindexed);
+        int written = writeSales(tier, records, eventIds, due, batch, processed);
+        if (written < due) {
+            due = written;
+            wait = PARK_FAILURE_PAUSE_MS;
+        }
+        eventDeduplicator.markProcessed(processed);
+        // Records not yet due are redelivered, so only the handled prefix counts as consumed
+        eventConsumerMetrics.recordBatch(tier, records.subList(0, due));
+        if (due < records.size()) {
+            ack.nack(due, Duration.ofMillis(Math.min(wait, MAX_RETRY_PAUSE_MS)));
+        } else {
+            ack.acknowledge();
+        }
+    }
+
+    private void processOnce(ConsumerRecord<String, DomainEvent> record, String eventId, boolean duplicate,
+                             boolean retried, BatchSinks batch, List<String> processed) {
+        if (duplicate) {
+            log.debug("Skipping duplicate event {} from {}-{}@{}", eventId, record.topic(), record.partition(), record.offset());
+            eventConsumerMetrics.recordHandled(eventConsumerMetrics.start(), record.topic(),
+                    record.value().eventType(), EventConsumerMetrics.Outcome.DUPLICATE);
+            return;
+        }
+        if (process(record, eventId, retried, batch)) {
+            if (eventId != null) {
+                processed.add(eventId);
+            }
+        } else if (eventId != null) {
+            eventDeduplicator.remember(eventId);
+        }
+    }
+
+    // Events from producers that predate event ids are identified by their source position
+    private List<String> eventIds(List<ConsumerRecord<String, DomainEvent>> records) {
+        List<String> eventIds = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, DomainEvent> record : records) {
+            DomainEvent event = record.value();
+            if (event == null) {
+                eventIds.add(null);
+            } else if (event.eventId() != null) {
+                eventIds.add(event.eventId());
+            } else {
+                eventIds.add(eventRetryRouter.sourceTopic(record) + "-" + eventRetryRouter.originalPartition(record)
+                        + "@" + eventRetryRouter.originalOffset(record));
+            }
+        }
+        return eventIds;
+    }
+
+    // Retried and replayed records are off their original partition, so the local filter cannot clear them
+    private List<EventDeduplicator.EventKey> eventKeys(List<ConsumerRecord<String, DomainEvent>> records,
+                                                              List<String> eventIds, boolean retried) {
+        List<EventDeduplicator.EventKey> keys = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, DomainEvent> record = records.get(i);
+            keys.add(new EventDeduplicator.EventKey(eventIds.get(i),
+                    retried || eventRetryRouter.isReplay(record) ? null
+                            : new TopicPartition(record.topic(), record.partition())));
+        }
+        return keys;
+    }
+
+    // Returns false when the record was parked on the retry or dead-letter path instead
+    private boolean process(ConsumerRecord<String, DomainEvent> record, String eventId, boolean retried,
+                            BatchSinks batch) {
+        Timer.Sample sample = eventConsumerMetrics.start();
+        DomainEvent event = record.value();
+        if (event == null) {
+            Exception failure = eventRetryRouter.deserializationFailure(record);
+            eventRetryRouter.deadLetter(record, failure != null ? failure : new IllegalStateException("Empty event"));
+            eventConsumerMetrics.recordHandled(sample, record.topic(), null, EventConsumerMetrics.Outcome.FAILURE);
+            return false;
+        }
+
+        log.debug("Received {} for entity {} from {}-{}@{}", event.eventType(), event.entityId(),
+                record.topic(), record.partition(), record.offset());
+        Set<String> completed = eventRetryRouter.completedSinks(record);
+        try {
+            if (event instanceof OrderEvent order) {
+                handleOrderEvent(order, record, eventId, retried, completed, batch);
+            } else if (event instanceof ProductEvent product) {
+                handleProductEvent(product, batch.reindexed, completed);
+            } else if (event instanceof AlertEvent alert) {
+                handleAlertEvent(alert, completed);
+            } else if (event instanceof AnalyticsEvent analytics) {
+                handleAnalyticsEvent(analytics);
+            }
+            eventConsumerMetrics.recordHandled(sample, record.topic(), event.eventType(), EventConsumerMetrics.Outcome.SUCCESS);
+            return true;
+        } catch (Exception e) {
+            // The retry writes its own sales, so this attempt's share must not reach the batch write
+            batch.sales.remove(record);
+            eventRetryRouter.retry(record, e, completed);
+            eventConsumerMetrics.recordHandled(sample, record.topic(), event.eventType(), EventConsumerMetrics.Outcome.FAILURE);
+            return false;
+        }
+    }
+
+    // A sink is skipped when an earlier attempt of the same event already got through it
+    private static void sink(Set<String> completed, String name, Runnable action) {
+        if (!completed.contains(name)) {
+            action.run();
+            completed.add(name);
+        }
+    }
+
+    private void handleOrderEvent(OrderEvent event, ConsumerRecord<String, DomainEvent> record, String eventId,
+                                  boolean retried, Set<String> completed, BatchSinks batch) {
+        switch (event.eventType()) {
+            case "ORDER_CREATED" -> handleOrderCreated(event, record, eventId, retried, completed, batch);
             case "ORDER_UPDATED" -> handleOrderUpdated(event);
-            case "ORDER_COMPLETED" -> handleOrderCompleted(event);
-            default -> log.warn("Unknown order event type: {}", event.getEventType());
+            case "ORDER_COMPLETED" -> handleOrderCompleted(event, record, eventId, retried, completed);
+            default -> log.warn("Unknown order event type: {}", event.eventType());
         }
+        sink(completed, "alert-rules", () -> alertRuleEngine.onEvent(event.toMessage()));
     }
 
-    @KafkaListener(topics = "product-events", groupId = "analytics-service")
-    public void consumeProductEvent(EventMessage event) {
-        log.info("Received product event: {} for product {}", event.getEventType(), event.getEntityId());
-        
-        switch (event.getEventType()) {
-            case "PRODUCT_CREATED" -> handleProductCreated(event);
-            case "PRODUCT_UPDATED" -> handleProductUpdated(event);
+    private void handleProductEvent(ProductEvent event, Set<Long> reindexed, Set<String> completed) {
+        switch (event.eventType()) {
+            case "PRODUCT_CREATED", "PRODUCT_UPDATED" -> reindexed.add(event.productId());
             case "INVENTORY_LOW" -> handleInventoryLow(event);
-            default -> log.warn("Unknown product event type: {}", event.getEventType());
+            default -> log.warn("Unknown product event type: {}", event.eventType());
         }
+        EventMessage message = event.toMessage();
+        sink(completed, "cache", () -> cacheInvalidationService.onEvent(message));
+        sink(completed, "alert-rules", () -> alertRuleEngine.onEvent(message));
     }
 
-    @KafkaListener(topics = "alert-events", groupId = "analytics-service")
-    public void consumeAlertEvent(EventMessage event) {
-        log.info("Received alert event: {} for alert {}", event.getEventType(), event.getEntityId());
-        
-        switch (event.getEventType()) {
-            case "ALERT_CREATED" -> handleAlertCreated(event);
-            case "ALERT_READ" -> handleAlertRead(event);
-            default -> log.warn("Unknown alert event type: {}", event.getEventType());
-        }
+    private void handleAlertEvent(AlertEvent event, Set<String> completed) {
+        EventMessage message = event.toMessage();
+        sink(completed, "push", () -> {
+            switch (event.eventType()) {
+                case "ALERT_CREATED" -> handleAlertCreated(event, message);
+                case "ALERT_READ" -> handleAlertRead(event, message);
+                case "ALERTS_READ" -> handleAlertsRead(event, message);
+                default -> log.warn("Unknown alert event type: {}", event.eventType());
+            }
+        });
+        sink(completed, "cache", () -> cacheInvalidationService.onEvent(message));
     }
 
-    @KafkaListener(topics = "analytics-events", groupId = "analytics-service")
-    public void consumeAnalyticsEvent(EventMessage event) {
-        log.info("Received analytics event: {}", event.getEventType());
-        
-        switch (event.getEventType()) {
+    private void handleAnalyticsEvent(AnalyticsEvent event) {
+        switch (event.eventType()) {
             case "METRICS_CALCULATED" -> handleMetricsCalculated(event);
             case "REPORT_GENERATED" -> handleReportGenerated(event);
-            default -> log.warn("Unknown analytics event type: {}", event.getEventType());
+            default -> log.warn("Unknown analytics event type: {}", event.eventType());
         }
     }
 
-    private void handleOrderCreated(EventMessage event) {
-        // Implementation for order creation analytics
-        log.info("Processing order creation analytics for order {}", event.getEntityId());
+    // One lookup for every product created or changed in the batch; the periodic rebuild covers failures
+    private void reindex(Set<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        try {
+            productSearchIndex.reindex(productIds);
+        } catch (Exception e) {
+            log.error("Failed to reindex {} products: {}", productIds.size(), e.getMessage());
+        }
     }
 
-    private void handleOrderUpdated(EventMessage event) {
-        // Implementation for order update analytics
-        log.info("Processing order update analytics for order {}", event.getEntityId());
+    // Sales stats for the batch are written before its offsets are committed. If the write fails, every
+    // record behind it is parked with its other sinks marked done; returns how many records from the
+    // start of the batch are finished, which is less than handled only when one could not be parked
+    private int writeSales(String listener, List<ConsumerRecord<String, DomainEvent>> records, List<String> eventIds,
+                           int handled, BatchSinks batch, List<String> processed) {
+        if (batch.sales.isEmpty()) {
+            return handled;
+        }
+        try {
+            productSalesStatsService.write(batch.sales.values().stream().map(PendingSale::sale).toList());
+            return handled;
+        } catch (Exception e) {
+            log.error("Failed to write sales stats for {} {} events; parking them: {}", batch.sales.size(),
+                    listener, e.getMessage());
+            for (Map.Entry<ConsumerRecord<String, DomainEvent>, PendingSale> entry : batch.sales.entrySet()) {
+                ConsumerRecord<String, DomainEvent> record = entry.getKey();
+                String eventId = entry.getValue().eventId();
+                try {
+                    eventRetryRouter.retry(record, e, entry.getValue().completed());
+                } catch (RuntimeException parkFailure) {
+                    int resumeAt = records.indexOf(record);
+                    log.error("Could not park {} event at offset {}; redelivering from there: {}", listener,
+                            record.offset(), parkFailure.getMessage());
+                    processed.removeAll(eventIds.subList(resumeAt, records.size()));
+                    return resumeAt;
+                }
+                if (eventId != null) {
+                    processed.remove(eventId);
+                    eventDeduplicator.remember(eventId);
+                }
+            }
+            return handled;
+        }
     }
 
-    private void handleOrderCompleted(EventMessage event) {
-        // Implementation for order completion analytics
-        log.info("Processing order completion analytics for order {}", event.getEntityId());
+    // Month-to-date windows are fenced by source offset, so retried events are counted on the late path
+    private void handleOrderCreated(OrderEvent event, ConsumerRecord<String, DomainEvent> record, String eventId,
+                                    boolean retried, Set<String> completed, BatchSinks batch) {
+        log.debug("Processing order creation analytics for order {}", event.orderId());
+        LocalDateTime orderDate = event.effectiveOrderDate();
+        sink(completed, "month-to-date", () -> {
+            if (retried) {
+                orderMetricsStore.recordLateOrder(eventId, event.orderId(), event.totalAmount(), orderDate);
+            } else {
+                orderMetricsStore.recordOrder(record.partition(), record.offset(), event.orderId(),
+                        event.totalAmount(), orderDate);
+            }
+        });
+        List<OrderItem> items = orderItems(event);
+        sink(completed, "leaderboard", () -> productLeaderboard.recordOrder(orderDate, items));
+        // Marked complete only once the batch write succeeds; see writeSales
+        if (!completed.contains("sales-stats")) {
+            batch.sales.put(record, new PendingSale(eventId, new ProductSalesStatsService.Sale(orderDate, items), completed));
+        }
     }
 
-    private void handleProductCreated(EventMessage event) {
-        // Implementation for product creation analytics
-        log.info("Processing product creation analytics for product {}", event.getEntityId());
+    private void handleOrderUpdated(OrderEvent event) {
+        // Implementation for order update analytics
+        log.debug("Processing order update analytics for order {}", event.orderId());
     }
 
-    private void handleProductUpdated(EventMessage event) {
-        // Implementation for product update analytics
-        log.info("Processing product update analytics for product {}", event.getEntityId());
+    private void handleOrderCompleted(OrderEvent event, ConsumerRecord<String, DomainEvent> record, String eventId,
+                                      boolean retried, Set<String> completed) {
+        log.debug("Processing order completion analytics for order {}", event.orderId());
+        // Orders are booked on creation; completion only carries a final amount correction, if any
+        sink(completed, "month-to-date", () -> {
+            if (retried) {
+                orderMetricsStore.recordLateAdjustment(eventId, event.orderId(), event.amountDelta(),
+                        event.effectiveOrderDate());
+            } else {
+                orderMetricsStore.recordAdjustment(record.partition(), record.offset(), event.orderId(),
+                        event.amountDelta(), event.effectiveOrderDate());
+            }
+        });
     }
 
-    private void handleInventoryLow(EventMessage event) {
-        // Implementation for low inventory alerts
-        log.info("Processing low inventory alert for product {}", event.getEntityId());
+    private void handleInventoryLow(ProductEvent event) {
+        // Low-stock alerts are raised by the alert rule engine
+        log.debug("Processing low inventory alert for product {}", event.productId());
     }
 
-    private void handleAlertCreated(EventMessage event) {
-        // Implementation for alert creation processing
-        log.info("Processing alert creation for alert {}", event.getEntityId());
+    private void handleAlertCreated(AlertEvent event, EventMessage message) {
+        log.debug("Processing alert creation for alert {}", event.alertId());
+        alertPushHub.publish(message);
     }
 
-    private void handleAlertRead(EventMessage event) {
-        // Implementation for alert read processing
-        log.info("Processing alert read for alert {}", event.getEntityId());
+    private void handleAlertRead(AlertEvent event, EventMessage message) {
+        log.debug("Processing alert read for alert {}", event.alertId());
+        alertPushHub.publish(message);
     }
 
-    private void handleMetricsCalculated(EventMessage event) {
+    private void handleAlertsRead(AlertEvent event, EventMessage message) {
+        log.debug("Processing bulk alert read for {} alerts", event.count() != null ? event.count() : 0);
+        alertPushHub.publish(message);
+    }
+
+    private void handleMetricsCalculated(AnalyticsEvent event) {
         // Implementation for metrics calculation processing
-        log.info("Processing metrics calculation event");
+        log.debug("Processing metrics calculation event");
     }
 
-    private void handleReportGenerated(EventMessage event) {
+    private void handleReportGenerated(AnalyticsEvent event) {
         // Implementation for report generation processing
-        log.info("Processing report generation event");
+        log.debug("Processing report generation event");
+    }
+
+    // Sinks written once per batch, after every record has been handled
+    private static final class BatchSinks {
+
+        private final Set<Long> reindexed = new LinkedHashSet<>();
+        private final Map<ConsumerRecord<String, DomainEvent>, PendingSale> sales = new LinkedHashMap<>();
+    }
+
+    private record PendingSale(String eventId, ProductSalesStatsService.Sale sale, Set<String> completed) {
+    }
+
+    private static List<Integer> orderPartitions(Collection<TopicPartition> partitions) {
+        return partitions.stream()
+                .filter(tp -> ORDER_EVENTS_TOPIC.equals(tp.topic()))
+                .map(TopicPartition::partition)
+                .toList();
+    }
+
+    private static List<OrderItem> orderItems(OrderEvent event) {
+        if (event.items() == null) {
+            return List.of();
+        }
+
+        List<OrderItem> items = new ArrayList<>(event.items().size());
+        for (OrderEvent.Item item : event.items()) {
+            if (item.productId() != null) {
+                OrderItem orderItem = new OrderItem();
+                orderItem.setOrderId(event.orderId());
+                orderItem.setProductId(item.productId());
+                orderItem.setQuantity(item.quantity() != null ? item.quantity() : 1);
+                orderItem.setUnitPrice(item.unitPrice() != null ? item.unitPrice() : BigDecimal.ZERO);
+                items.add(orderItem);
+            }
+        }
+        return items;
     }
-}
\ No newline at end of file
+}
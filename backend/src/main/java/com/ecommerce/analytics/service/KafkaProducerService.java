@@ -1,19 +1,31 @@
 package com.ecommerce.analytics.service;
 
 import com.ecommerce.analytics.dto.EventMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
+import java.util.UUID;
 
+/**
+ * Records domain events in the event_outbox table. Callers running inside a transaction get the
+ * event committed or rolled back together with their entity change; {@link OutboxRelay} does the
+ * actual Kafka publishing.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class KafkaProducerService {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private static final String INSERT_OUTBOX =
+            "INSERT INTO event_outbox (topic, event_key, payload) VALUES (?, ?, ?::jsonb)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
 
     public void sendOrderEvent(String eventType, Long orderId, Map<String, Object> data) {
         EventMessage event = new EventMessage(eventType, "ORDER", orderId, data);
@@ -25,9 +37,10 @@ public class KafkaProducerService {
         sendEvent("product-events", event);
     }
 
-    public void sendAlertEvent(String eventType, Long alertId, Map<String, Object> data) {
+    public EventMessage sendAlertEvent(String eventType, Long alertId, Map<String, Object> data) {
         EventMessage event = new EventMessage(eventType, "ALERT", alertId, data);
         sendEvent("alert-events", event);
+        return event;
     }
 
     public void sendAnalyticsEvent(String eventType, Map<String, Object> data) {
@@ -35,12 +48,18 @@ public class KafkaProducerService {
         sendEvent("analytics-events", event);
     }
 
+    // Failures propagate so the surrounding transaction rolls back instead of losing the event.
+    // The id is stored with the payload, so relay retries resend the same id and consumers can drop them.
     private void sendEvent(String topic, EventMessage event) {
+        if (event.getEventId() == null) {
+            event.setEventId(UUID.randomUUID().toString());
+        }
+        String key = event.getEntityId() != null ? event.getEntityId().toString() : "analytics";
         try {
-            kafkaTemplate.send(topic, event.getEntityId() != null ? event.getEntityId().toString() : "analytics", event);
-            log.info("Event sent to topic {}: {}", topic, event.getEventType());
-        } catch (Exception e) {
-            log.error("Failed to send event to topic {}: {}", topic, e.getMessage());
+            jdbcTemplate.update(INSERT_OUTBOX, topic, key, objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + event.getEventType() + " event", e);
         }
+        log.debug("Event queued for topic {}: {}", topic, event.getEventType());
     }
-}
\ No newline at end of file
+}
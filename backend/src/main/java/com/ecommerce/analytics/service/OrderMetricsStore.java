@@ -0,0 +1,326 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Month-to-date order totals kept per order-events partition. The node that owns a partition
+ * folds its events in and publishes the window to a Redis changelog; every other node mirrors
+ * that changelog, so reads never touch Postgres. Events that come back through the retry topics
+ * are behind their partition's offset fence and are counted on a separate per-event late path: an
+ * append-only Redis list per month that every node tails, folding entries by event id and dropping
+ * those for orders a backfill has already counted.
+ */
+@Service
+@Slf4j
+public class OrderMetricsStore {
+
+    private static final String CHANGELOG_KEY_PREFIX = "order-metrics:changelog:";
+    private static final String LATE_KEY_PREFIX = "order-metrics:late-log:";
+
+    private final OrderRepository orderRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final int partitionCount;
+
+    private final Map<Integer, Window> windows = new ConcurrentHashMap<>();
+    private final Set<Integer> ownedPartitions = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> dirtyPartitions = ConcurrentHashMap.newKeySet();
+    private volatile LateTotals lateTotals = LateTotals.empty(YearMonth.now());
+
+    // Only touched from syncChangelog
+    private LateLog lateLog = LateLog.empty(YearMonth.now());
+
+    public OrderMetricsStore(OrderRepository orderRepository,
+                             RedisTemplate<String, Object> redisTemplate,
+                             NewTopic orderEventsTopic) {
+        this.orderRepository = orderRepository;
+        this.redisTemplate = redisTemplate;
+        this.partitionCount = orderEventsTopic.numPartitions();
+    }
+
+    public void recordOrder(int partition, long offset, Long orderId, BigDecimal amount, LocalDateTime orderDate) {
+        apply(partition, offset, orderId, 1, amount, orderDate);
+    }
+
+    public void recordAdjustment(int partition, long offset, Long orderId, BigDecimal amountDelta, LocalDateTime orderDate) {
+        apply(partition, offset, orderId, 0, amountDelta, orderDate);
+    }
+
+    // Folded by event id, so retrying the same event replaces its share instead of adding it again
+    public void recordLateOrder(String eventId, Long orderId, BigDecimal amount, LocalDateTime orderDate) {
+        applyLate(eventId, orderId, 1, amount, orderDate);
+    }
+
+    public void recordLateAdjustment(String eventId, Long orderId, BigDecimal amountDelta, LocalDateTime orderDate) {
+        applyLate(eventId, orderId, 0, amountDelta, orderDate);
+    }
+
+    // The list expires a day after its month ends, leaving room for clock skew between nodes
+    private void applyLate(String eventId, Long orderId, long orders, BigDecimal amount, LocalDateTime orderDate) {
+        YearMonth month = YearMonth.from(orderDate);
+        if (month.equals(YearMonth.now())) {
+            String key = lateKey(month);
+            redisTemplate.opsForList().rightPush(key, new LateEntry(eventId, orderId, orders, toCents(amount)).encode());
+            redisTemplate.expireAt(key, month.plusMonths(1).atDay(2).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        }
+    }
+
+    private void apply(int partition, long offset, Long orderId, long orders, BigDecimal amount, LocalDateTime orderDate) {
+        YearMonth month = YearMonth.from(orderDate);
+        if (!month.equals(YearMonth.now())) {
+            return;
+        }
+
+        Window current = windows.get(partition);
+        if (current == null || !current.month().equals(month)) {
+            current = Window.empty(month);
+        }
+        if (offset <= current.offset() || (orderId != null && orderId <= current.backfillWatermark())) {
+            return;
+        }
+
+        windows.put(partition, new Window(month, current.orders() + orders,
+                current.salesCents() + toCents(amount), offset, current.backfillWatermark()));
+        dirtyPartitions.add(partition);
+    }
+
+    public Optional<MonthToDate> monthToDate() {
+        if (windows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        YearMonth month = YearMonth.now();
+        long orders = 0;
+        long salesCents = 0;
+        for (Window window : windows.values()) {
+            if (window.month().equals(month)) {
+                orders += window.orders();
+                salesCents += window.salesCents();
+            }
+        }
+        LateTotals late = lateTotals;
+        if (late.month().equals(month)) {
+            orders += late.orders();
+            salesCents += late.salesCents();
+        }
+        return Optional.of(new MonthToDate(orders, BigDecimal.valueOf(salesCents, 2)));
+    }
+
+    public void onPartitionsAssigned(Collection<Integer> partitions) {
+        YearMonth month = YearMonth.now();
+        Map<Object, Object> changelog = readChangelog(month);
+
+        Map<Integer, Window> missing = new HashMap<>();
+        for (Integer partition : partitions) {
+            Window restored = Window.decode(changelog.get(partition.toString()));
+            if (restored != null) {
+                windows.put(partition, restored);
+            } else {
+                missing.put(partition, Window.empty(month));
+            }
+            ownedPartitions.add(partition);
+        }
+
+        if (!missing.isEmpty()) {
+            backfill(month, missing);
+        }
+        log.info("Order metrics restored for partitions {} ({} from SQL backfill)", partitions, missing.keySet());
+    }
+
+    public void onPartitionsRevoked(Collection<Integer> partitions) {
+        flushChangelog();
+        ownedPartitions.removeAll(partitions);
+    }
+
+    // Bounded to the current month; rows are routed to the partition their event key hashes to
+    private void backfill(YearMonth month, Map<Integer, Window> missing) {
+        LocalDateTime startOfMonth = month.atDay(1).atStartOfDay();
+        Map<Integer, long[]> totals = new HashMap<>();
+        for (Object[] row : orderRepository.findOrderAmountsBetweenDates(startOfMonth, LocalDateTime.now())) {
+            Long orderId = (Long) row[0];
+            int partition = partitionFor(orderId);
+            if (missing.containsKey(partition)) {
+                long[] acc = totals.computeIfAbsent(partition, p -> new long[3]);
+                acc[0]++;
+                acc[1] += toCents((BigDecimal) row[1]);
+                acc[2] = Math.max(acc[2], orderId);
+            }
+        }
+
+        for (Integer partition : missing.keySet()) {
+            long[] acc = totals.getOrDefault(partition, new long[3]);
+            windows.put(partition, new Window(month, acc[0], acc[1], -1L, acc[2]));
+            dirtyPartitions.add(partition);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.changelog-sync-ms:1000}")
+    public void syncChangelog() {
+        flushChangelog();
+
+        YearMonth month = YearMonth.now();
+        Map<Object, Object> changelog = readChangelog(month);
+        changelog.forEach((field, value) -> {
+            int partition = Integer.parseInt(field.toString());
+            Window window = Window.decode(value);
+            if (!ownedPartitions.contains(partition) && window != null) {
+                windows.put(partition, window);
+            }
+        });
+        lateTotals = readLate(month);
+    }
+
+    private void flushChangelog() {
+        if (dirtyPartitions.isEmpty()) {
+            return;
+        }
+
+        Map<String, Map<String, Object>> byKey = new HashMap<>();
+        for (Integer partition : Set.copyOf(dirtyPartitions)) {
+            dirtyPartitions.remove(partition);
+            Window window = windows.get(partition);
+            if (window != null) {
+                byKey.computeIfAbsent(changelogKey(window.month()), k -> new HashMap<>())
+                        .put(partition.toString(), window.encode());
+            }
+        }
+
+        try {
+            byKey.forEach((key, fields) -> redisTemplate.opsForHash().putAll(key, fields));
+        } catch (Exception e) {
+            log.warn("Failed to write order metrics changelog: {}", e.getMessage());
+        }
+    }
+
+    private Map<Object, Object> readChangelog(YearMonth month) {
+        try {
+            return redisTemplate.opsForHash().entries(changelogKey(month));
+        } catch (Exception e) {
+            log.warn("Failed to read order metrics changelog: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    // Reads only the entries appended since the last tick; a late entry for an order at or below its
+    // partition's backfill watermark was already counted by the SQL backfill
+    private LateTotals readLate(YearMonth month) {
+        if (!lateLog.month().equals(month)) {
+            lateLog = LateLog.empty(month);
+        }
+        try {
+            List<Object> appended = redisTemplate.opsForList().range(lateKey(month), lateLog.read(), -1);
+            if (appended != null) {
+                for (Object value : appended) {
+                    LateEntry entry = LateEntry.decode(value);
+                    lateLog.entries().put(entry.eventId(), entry);
+                }
+                lateLog = new LateLog(month, lateLog.read() + appended.size(), lateLog.entries());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read late order metrics: {}", e.getMessage());
+        }
+
+        long orders = 0;
+        long salesCents = 0;
+        for (LateEntry entry : lateLog.entries().values()) {
+            Window window = entry.orderId() != null ? windows.get(partitionFor(entry.orderId())) : null;
+            if (window == null || !window.month().equals(month) || entry.orderId() > window.backfillWatermark()) {
+                orders += entry.orders();
+                salesCents += entry.salesCents();
+            }
+        }
+        return new LateTotals(month, orders, salesCents);
+    }
+
+    // Same partition the default producer partitioner picks for the String entity-id key
+    private int partitionFor(Long orderId) {
+        byte[] key = orderId.toString().getBytes(StandardCharsets.UTF_8);
+        return Utils.toPositive(Utils.murmur2(key)) % partitionCount;
+    }
+
+    private static String changelogKey(YearMonth month) {
+        return CHANGELOG_KEY_PREFIX + month;
+    }
+
+    private static String lateKey(YearMonth month) {
+        return LATE_KEY_PREFIX + month;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0L : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public record MonthToDate(long orders, BigDecimal sales) {
+
+        public BigDecimal averageOrderValue() {
+            return orders > 0 ? sales.divide(BigDecimal.valueOf(orders), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+        }
+    }
+
+    private record LateTotals(YearMonth month, long orders, long salesCents) {
+
+        static LateTotals empty(YearMonth month) {
+            return new LateTotals(month, 0L, 0L);
+        }
+    }
+
+    private record LateLog(YearMonth month, long read, Map<String, LateEntry> entries) {
+
+        static LateLog empty(YearMonth month) {
+            return new LateLog(month, 0L, new HashMap<>());
+        }
+    }
+
+    private record LateEntry(String eventId, Long orderId, long orders, long salesCents) {
+
+        String encode() {
+            return orders + "|" + salesCents + "|" + (orderId != null ? orderId : "") + "|" + eventId;
+        }
+
+        // The event id goes last and may itself contain separators
+        static LateEntry decode(Object value) {
+            String[] parts = value.toString().split("\\|", 4);
+            return new LateEntry(parts[3], parts[2].isEmpty() ? null : Long.valueOf(parts[2]),
+                    Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        }
+    }
+
+    private record Window(YearMonth month, long orders, long salesCents, long offset, long backfillWatermark) {
+
+        static Window empty(YearMonth month) {
+            return new Window(month, 0L, 0L, -1L, 0L);
+        }
+
+        String encode() {
+            return month + "|" + orders + "|" + salesCents + "|" + offset + "|" + backfillWatermark;
+        }
+
+        static Window decode(Object value) {
+            if (value == null) {
+                return null;
+            }
+            String[] parts = value.toString().split("\\|");
+            return new Window(YearMonth.parse(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]),
+                    Long.parseLong(parts[3]), Long.parseLong(parts[4]));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.dto.CursorPage;
+import com.ecommerce.analytics.dto.OrderDTO;
+import com.ecommerce.analytics.entity.Order;
+import com.ecommerce.analytics.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class OrderService {
+
+    private final OrderRepository orderRepository;
+
+    public Page<OrderDTO> getCustomerOrders(Long customerId, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "orderDate", "id"));
+        return orderRepository.findByCustomerId(customerId, pageable).map(this::convertToDTO);
+    }
+
+    public CursorPage<OrderDTO> getCustomerOrdersAfter(Long customerId, String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor);
+        List<Order> orders = position == null
+                ? orderRepository.findLatestByCustomerId(customerId, PageCursor.probe(size))
+                : orderRepository.findLatestByCustomerIdAfter(customerId, position.timestamp(), position.id(),
+                        PageCursor.probe(size));
+        return PageCursor.page(orders, size, o -> new PageCursor(o.getOrderDate(), o.getId()), this::convertToDTO);
+    }
+
+    private OrderDTO convertToDTO(Order order) {
+        return new OrderDTO(order.getId(), order.getCustomerId(), order.getTotalAmount(), order.getStatus(),
+                order.getOrderDate(), order.getShippedDate(), order.getDeliveredDate());
+    }
+}
@@ -0,0 +1,296 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.dto.EventMessage;
+import com.ecommerce.analytics.events.EventSchema;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains event_outbox to Kafka. Each round claims a batch of rows in one short transaction (SKIP
+ * LOCKED, so several nodes can relay side by side), sends them through the batching producer with
+ * no transaction or row lock held, then deletes the rows whose send callback reported success and
+ * releases the rest in a second short transaction. A claim lapses after claim-ms, so rows left
+ * behind by a relay that died are sent again; delivery is at-least-once.
+ * <p>
+ * Events of one key are handed to the producer in outbox order: a row is held back while an
+ * earlier row of its key is claimed by another node, rejected earlier in the round, or being
+ * retried after a rejection (a retried row goes out alone until it is delivered or parked).
+ * Rejections that retrying cannot fix (an unreadable payload, a record the broker refuses) are
+ * counted per row; after max-attempts the row moves to event_outbox_parked. Broker outages and
+ * timeouts are not counted, so they never park a healthy backlog.
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+
+    private static final String CLAIM_BATCH = """
+        WITH batch AS (
+            SELECT id FROM event_outbox
+            WHERE claimed_until IS NULL OR claimed_until < CURRENT_TIMESTAMP
+            ORDER BY id
+            LIMIT :batchSize
+            FOR UPDATE SKIP LOCKED
+        )
+        UPDATE event_outbox o
+        SET claimed_by = :claim, claimed_until = CURRENT_TIMESTAMP + :claimMs * INTERVAL '1 millisecond'
+        FROM batch WHERE o.id = batch.id
+        RETURNING o.id, o.topic, o.event_key, o.payload, o.attempts
+        """;
+
+    // Only rows still under this round's claim: one whose claim lapsed may belong to another relay by now
+    private static final String RELEASE_ROWS = """
+        UPDATE event_outbox SET claimed_by = NULL, claimed_until = NULL
+        WHERE id IN (:ids) AND claimed_by = :claim
+        """;
+
+    // Keys of the batch that still have an earlier row outside it, i.e. claimed by another relay
+    private static final String SELECT_HELD_KEYS = """
+        SELECT DISTINCT topic, event_key FROM event_outbox
+        WHERE event_key IN (:keys) AND id < :maxId AND id NOT IN (:ids)
+        """;
+
+    private static final String PARK_ROWS = """
+        WITH parked AS (
+            DELETE FROM event_outbox WHERE id IN (:ids) AND attempts >= :maxAttempts
+            RETURNING id, topic, event_key, payload, created_at, attempts, last_error
+        )
+        INSERT INTO event_outbox_parked (id, topic, event_key, payload, created_at, attempts, last_error)
+        SELECT id, topic, event_key, payload, created_at, attempts, last_error FROM parked
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final long claimMs;
+    private final int maxAttempts;
+
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong oldestEventAgeMs = new AtomicLong();
+    private final AtomicLong parkedEvents = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       NamedParameterJdbcTemplate namedJdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.batch-size:500}") int batchSize,
+                       @Value("${app.outbox.send-timeout-ms:10000}") long sendTimeoutMs,
+                       @Value("${app.outbox.claim-ms:30000}") long claimMs,
+                       @Value("${app.outbox.max-attempts:5}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.claimMs = claimMs;
+        this.maxAttempts = maxAttempts;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("outbox.lag.events", pendingEvents, AtomicLong::get)
+                .description("Events written to the outbox but not yet acknowledged by Kafka")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag.seconds", oldestEventAgeMs, age -> age.get() / 1000.0)
+                .description("Age of the oldest undelivered outbox event")
+                .register(meterRegistry);
+        Gauge.builder("outbox.parked.events", parkedEvents, AtomicLong::get)
+                .description("Events moved to event_outbox_parked after repeated rejections")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-ms:100}")
+    public void relay() {
+        int sent;
+        do {
+            sent = relayBatch();
+        } while (sent == batchSize);
+    }
+
+    private int relayBatch() {
+        String claim = UUID.randomUUID().toString();
+        List<OutboxRow> rows = transactionTemplate.execute(status -> claimBatch(claim));
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+
+        Set<EventStream> held = heldStreams(rows);
+
+        Queue<Long> acked = new ConcurrentLinkedQueue<>();
+        Map<Long, String> rejected = new ConcurrentHashMap<>();
+        List<CompletableFuture<?>> sends = new ArrayList<>(rows.size());
+        for (OutboxRow row : rows) {
+            if (held.contains(row.stream())) {
+                continue;
+            }
+            if (row.attempts() > 0) {
+                held.add(row.stream());
+            }
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                EventMessage event = objectMapper.readValue(row.payload(), EventMessage.class);
+                CompletableFuture<?> send = kafkaTemplate.send(row.topic(), row.key(), EventSchema.fromMessage(event)).whenComplete((result, ex) -> {
+                    sample.stop(sendTimer(row.topic(), ex == null));
+                    if (ex == null) {
+                        acked.add(row.id());
+                    } else {
+                        log.error("Failed to deliver outbox event {} to topic {}: {}", row.id(), row.topic(), ex.getMessage());
+                        if (!isRetriable(ex)) {
+                            rejected.put(row.id(), String.valueOf(ex.getMessage()));
+                        }
+                    }
+                });
+                sends.add(send);
+                // Rejected before reaching the broker (serializer, record size): later events of the key wait
+                if (send.isCompletedExceptionally()) {
+                    held.add(row.stream());
+                }
+            } catch (Exception e) {
+                sample.stop(sendTimer(row.topic(), false));
+                log.error("Failed to relay outbox event {} to topic {}: {}", row.id(), row.topic(), e.getMessage());
+                rejected.put(row.id(), String.valueOf(e.getMessage()));
+                held.add(row.stream());
+            }
+        }
+        kafkaTemplate.flush();
+
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Outbox batch not fully acknowledged within {} ms; {} of {} events will be retried",
+                    sendTimeoutMs, rows.size() - acked.size(), rows.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Individual failures were already reported by their callbacks
+        }
+
+        List<Long> deliveredIds = new ArrayList<>(acked);
+        Map<Long, String> rejections = Map.copyOf(rejected);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!deliveredIds.isEmpty()) {
+                namedJdbcTemplate.update("DELETE FROM event_outbox WHERE id IN (:ids)",
+                        new MapSqlParameterSource("ids", deliveredIds));
+            }
+            if (!rejections.isEmpty()) {
+                park(rejections);
+            }
+            namedJdbcTemplate.update(RELEASE_ROWS, new MapSqlParameterSource("claim", claim)
+                    .addValue("ids", rows.stream().map(OutboxRow::id).toList()));
+        });
+        log.debug("Relayed {} of {} outbox events", deliveredIds.size(), rows.size());
+        return deliveredIds.size() == rows.size() ? rows.size() : 0;
+    }
+
+    // RETURNING gives no order guarantee, so the batch is sorted back into outbox order
+    private List<OutboxRow> claimBatch(String claim) {
+        MapSqlParameterSource params = new MapSqlParameterSource("batchSize", batchSize)
+                .addValue("claim", claim)
+                .addValue("claimMs", claimMs);
+        List<OutboxRow> rows = new ArrayList<>(namedJdbcTemplate.query(CLAIM_BATCH, params, (rs, i) -> new OutboxRow(
+                rs.getLong("id"), rs.getString("topic"), rs.getString("event_key"), rs.getString("payload"),
+                rs.getInt("attempts"))));
+        rows.sort(Comparator.comparingLong(OutboxRow::id));
+        return rows;
+    }
+
+    private Set<EventStream> heldStreams(List<OutboxRow> rows) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("keys", rows.stream().map(OutboxRow::key).distinct().toList())
+                .addValue("maxId", rows.get(rows.size() - 1).id())
+                .addValue("ids", rows.stream().map(OutboxRow::id).toList());
+        Set<EventStream> held = new HashSet<>();
+        namedJdbcTemplate.query(SELECT_HELD_KEYS, params,
+                rs -> { held.add(new EventStream(rs.getString("topic"), rs.getString("event_key"))); });
+        return held;
+    }
+
+    private void park(Map<Long, String> rejected) {
+        SqlParameterSource[] counts = rejected.entrySet().stream()
+                .map(e -> new MapSqlParameterSource("id", e.getKey()).addValue("error", e.getValue()))
+                .toArray(SqlParameterSource[]::new);
+        namedJdbcTemplate.batchUpdate(
+                "UPDATE event_outbox SET attempts = attempts + 1, last_error = :error WHERE id = :id", counts);
+        int parked = namedJdbcTemplate.update(PARK_ROWS, new MapSqlParameterSource("ids", List.copyOf(rejected.keySet()))
+                .addValue("maxAttempts", maxAttempts));
+        if (parked > 0) {
+            log.warn("Parked {} outbox events after {} rejected attempts; see event_outbox_parked", parked, maxAttempts);
+        }
+    }
+
+    // Timeouts, leader changes and broker outages clear up on their own; anything else will fail again
+    private static boolean isRetriable(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return true;
+            }
+        }
+        return ex instanceof TimeoutException;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.lag-refresh-ms:5000}")
+    public void refreshLag() {
+        jdbcTemplate.query("SELECT COUNT(*), MIN(created_at) FROM event_outbox", rs -> {
+            pendingEvents.set(rs.getLong(1));
+            Timestamp oldest = rs.getTimestamp(2);
+            oldestEventAgeMs.set(oldest != null ? Math.max(0L, System.currentTimeMillis() - oldest.getTime()) : 0L);
+        });
+        Long parked = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM event_outbox_parked", Long.class);
+        parkedEvents.set(parked != null ? parked : 0L);
+    }
+
+    // Send-to-ack latency; the count with result=failure is the producer error count
+    private Timer sendTimer(String topic, boolean success) {
+        return Timer.builder("kafka.producer.send")
+                .description("Time from send until the broker acknowledged or rejected the event")
+                .tag("topic", topic)
+                .tag("result", success ? "success" : "failure")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private record OutboxRow(long id, String topic, String key, String payload, int attempts) {
+
+        EventStream stream() {
+            return new EventStream(topic, key);
+        }
+    }
+
+    private record EventStream(String topic, String key) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.dto.CursorPage;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque seek position for keyset pagination: the sort key of the last row served, either
+ * {@code (timestamp, id)} or {@code (id)}, Base64url-encoded.
+ */
+record PageCursor(LocalDateTime timestamp, long id) {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            return separator < 0
+                    ? new PageCursor(null, Long.parseLong(decoded))
+                    : new PageCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                            Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    String encode() {
+        String raw = timestamp != null ? timestamp + "|" + id : Long.toString(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // One extra row tells whether another page exists, so no count query is needed
+    static Pageable probe(int size) {
+        return PageRequest.ofSize(Math.max(1, Math.min(size, MAX_PAGE_SIZE)) + 1);
+    }
+
+    static <R, T> CursorPage<T> page(List<R> rows, int size, Function<R, PageCursor> position, Function<R, T> mapper) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        boolean hasNext = rows.size() > pageSize;
+        List<R> pageRows = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? position.apply(pageRows.get(pageRows.size() - 1)).encode() : null;
+        return new CursorPage<>(pageRows.stream().map(mapper).toList(), nextCursor, hasNext);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.entity.Category;
+import com.ecommerce.analytics.entity.Vendor;
+import com.ecommerce.analytics.repository.CategoryRepository;
+import com.ecommerce.analytics.repository.DimensionVersionRepository;
+import com.ecommerce.analytics.repository.VendorRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory category and vendor names. Triggers on both tables bump dimension_versions, so a
+ * refresh costs one primary-key read until something actually changes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductDimensionRegistry {
+
+    private final CategoryRepository categoryRepository;
+    private final VendorRepository vendorRepository;
+    private final DimensionVersionRepository dimensionVersionRepository;
+
+    private volatile Map<Long, String> categoryNames = Map.of();
+    private volatile Map<Long, String> vendorNames = Map.of();
+    private volatile long loadedVersion = -1L;
+
+    public String categoryName(Long categoryId) {
+        ensureLoaded();
+        return categoryId != null ? categoryNames.get(categoryId) : null;
+    }
+
+    public String vendorName(Long vendorId) {
+        ensureLoaded();
+        return vendorId != null ? vendorNames.get(vendorId) : null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.dimensions.refresh-ms:5000}")
+    public synchronized void refresh() {
+        long version = dimensionVersionRepository.sumVersions();
+        if (version == loadedVersion) {
+            return;
+        }
+
+        categoryNames = categoryRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Category::getId, Category::getName));
+        vendorNames = vendorRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(Vendor::getId, Vendor::getName));
+        loadedVersion = version;
+        log.info("Product dimensions loaded at version {}: {} categories, {} vendors",
+                version, categoryNames.size(), vendorNames.size());
+    }
+
+    private void ensureLoaded() {
+        if (loadedVersion < 0) {
+            refresh();
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.entity.OrderItem;
+import com.ecommerce.analytics.repository.OrderItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Revenue and units leaderboards fed by order events. Each day keeps a pair of Space-Saving
+ * sketches so the today/7d/30d windows can slide; all-time has its own pair. Ranked views are
+ * rebuilt every second, so reads are a sublist copy.
+ * <p>
+ * A node only consumes the order-events partitions assigned to it, so the sketches are split in
+ * two: an exact base loaded from SQL at every recompute, and a partial holding the events this
+ * node consumed since then. Nodes publish their partials to a Redis hash and merge everyone
+ * else's into their views. Recomputes start on wall-clock multiples of recompute-ms, so all
+ * nodes swap base and partial within about a second of each other; events consumed in that gap
+ * may be missing from another node's view until the next recompute.
+ */
+@Service
+@Slf4j
+public class ProductLeaderboard {
+
+    public enum Window {
+        TODAY(1), LAST_7_DAYS(7), LAST_30_DAYS(30), ALL_TIME(0);
+
+        private final int days;
+
+        Window(int days) {
+            this.days = days;
+        }
+    }
+
+    public enum Metric {
+        REVENUE, UNITS
+    }
+
+    public record Entry(long productId, BigDecimal revenue, long units) {
+    }
+
+    private static final int RETAINED_DAYS = 30;
+    private static final String PARTIALS_KEY = "leaderboard:partials";
+    private static final String ALL_TIME_SCOPE = "all";
+    private static final long RECOMPUTE_RETRY_MS = 30000;
+
+    private final OrderItemRepository orderItemRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final int capacity;
+    private final int viewSize;
+    private final long recomputeMs;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile Sketches base;
+    private volatile Sketches partial;
+    private volatile long epoch = -1L;
+    private volatile long recomputeRetryAt;
+    // Other nodes' partials as {productId, rank, error, revenueCents, units} rows per scope and metric
+    private volatile Map<String, List<long[]>> remote = Map.of();
+    private volatile Map<String, String> remoteEncoded = Map.of();
+    private volatile Map<String, List<Entry>> views = Map.of();
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    private final AtomicBoolean partialDirty = new AtomicBoolean(true);
+
+    public ProductLeaderboard(OrderItemRepository orderItemRepository,
+                              StringRedisTemplate stringRedisTemplate,
+                              @Value("${app.leaderboard.sketch-capacity:1000}") int capacity,
+                              @Value("${app.leaderboard.view-size:100}") int viewSize,
+                              @Value("${app.leaderboard.recompute-ms:900000}") long recomputeMs) {
+        this.orderItemRepository = orderItemRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.capacity = capacity;
+        this.viewSize = viewSize;
+        this.recomputeMs = recomputeMs;
+        this.base = new Sketches(capacity);
+        this.partial = new Sketches(capacity);
+    }
+
+    public void recordOrder(LocalDateTime orderDate, List<OrderItem> items) {
+        partial.add(orderDate.toLocalDate(), items);
+        partialDirty.set(true);
+        dirty.set(true);
+    }
+
+    public List<Entry> top(Window window, Metric metric, int limit) {
+        List<Entry> view = views.getOrDefault(viewKey(window, metric), List.of());
+        return view.subList(0, Math.min(Math.max(limit, 0), view.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.leaderboard.view-refresh-ms:1000}")
+    public void refreshViews() {
+        long now = System.currentTimeMillis();
+        if (now / recomputeMs != epoch && now >= recomputeRetryAt) {
+            try {
+                recompute();
+            } catch (Exception e) {
+                // Base and partial stay as they are; both still belong to the previous epoch
+                recomputeRetryAt = now + RECOMPUTE_RETRY_MS;
+                log.warn("Product leaderboard recompute failed: {}", e.getMessage());
+            }
+        }
+        syncPartials();
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        base.expire(today);
+        partial.expire(today);
+
+        Map<String, List<Entry>> rebuilt = new HashMap<>();
+        for (Window window : Window.values()) {
+            for (Metric metric : Metric.values()) {
+                List<List<long[]>> rows = new ArrayList<>();
+                base.collect(window, metric, today, rows);
+                partial.collect(window, metric, today, rows);
+                remote.forEach((scopeAndMetric, remoteRows) -> {
+                    if (covers(window, metric, scopeAndMetric, today)) {
+                        rows.add(remoteRows);
+                    }
+                });
+                rebuilt.put(viewKey(window, metric), rank(rows));
+            }
+        }
+        views = rebuilt;
+    }
+
+    // Exact totals replace the base and this node's partial starts over; events that land while
+    // the queries run may be counted once more or missed until the next recompute
+    private void recompute() {
+        long target = System.currentTimeMillis() / recomputeMs;
+        LocalDate firstDay = LocalDate.now().minusDays(RETAINED_DAYS - 1);
+
+        Map<LocalDate, List<long[]>> dailyRows = new HashMap<>();
+        for (Object[] row : orderItemRepository.sumProductSalesByDaySince(firstDay.atStartOfDay())) {
+            LocalDate day = LocalDate.ofEpochDay(((Number) row[0]).longValue());
+            dailyRows.computeIfAbsent(day, d -> new ArrayList<>())
+                    .add(new long[] {((Number) row[1]).longValue(), toCents(row[2]), ((Number) row[3]).longValue()});
+        }
+        List<long[]> allTimeRows = new ArrayList<>();
+        for (Object[] row : orderItemRepository.sumProductSales()) {
+            allTimeRows.add(new long[] {((Number) row[0]).longValue(), toCents(row[1]), ((Number) row[2]).longValue()});
+        }
+
+        base = Sketches.exact(capacity, dailyRows, allTimeRows);
+        partial = new Sketches(capacity);
+        epoch = target;
+        partialDirty.set(true);
+        dirty.set(true);
+        log.info("Product leaderboard recomputed from {} daily and {} all-time product totals",
+                dailyRows.values().stream().mapToInt(List::size).sum(), allTimeRows.size());
+    }
+
+    // Publishes this node's partial when it changed and picks up the other nodes' partials of the same epoch
+    private void syncPartials() {
+        try {
+            if (partialDirty.getAndSet(false)) {
+                stringRedisTemplate.opsForHash().put(PARTIALS_KEY, nodeId, epoch + "\n" + partial.encode());
+            }
+
+            Map<String, String> encoded = new HashMap<>();
+            List<Object> expired = new ArrayList<>();
+            stringRedisTemplate.opsForHash().entries(PARTIALS_KEY).forEach((field, value) -> {
+                String text = value.toString();
+                long partialEpoch = Long.parseLong(text.substring(0, text.indexOf('\n')));
+                if (partialEpoch < epoch - 1) {
+                    expired.add(field);
+                } else if (partialEpoch == epoch && !nodeId.equals(field.toString())) {
+                    encoded.put(field.toString(), text.substring(text.indexOf('\n') + 1));
+                }
+            });
+            if (!expired.isEmpty()) {
+                stringRedisTemplate.opsForHash().delete(PARTIALS_KEY, expired.toArray());
+            }
+            if (!encoded.equals(remoteEncoded)) {
+                remote = decode(encoded.values());
+                remoteEncoded = encoded;
+                dirty.set(true);
+            }
+        } catch (Exception e) {
+            partialDirty.set(true);
+            log.warn("Failed to sync leaderboard partials; serving this node's events only: {}", e.getMessage());
+        }
+    }
+
+    private static boolean covers(Window window, Metric metric, String scopeAndMetric, LocalDate today) {
+        int separator = scopeAndMetric.indexOf(':');
+        if (!scopeAndMetric.substring(separator + 1).equals(metric.name())) {
+            return false;
+        }
+        String scope = scopeAndMetric.substring(0, separator);
+        if (window == Window.ALL_TIME) {
+            return ALL_TIME_SCOPE.equals(scope);
+        }
+        return !ALL_TIME_SCOPE.equals(scope)
+                && !LocalDate.ofEpochDay(Long.parseLong(scope)).isBefore(today.minusDays(window.days - 1));
+    }
+
+    // Lines of scope:metric|productId,rank,revenueCents,units;...
+    private static Map<String, List<long[]>> decode(Collection<String> partials) {
+        Map<String, List<long[]>> rows = new HashMap<>();
+        for (String encoded : partials) {
+            for (String line : encoded.split("\n")) {
+                int separator = line.indexOf('|');
+                if (separator < 0 || separator == line.length() - 1) {
+                    continue;
+                }
+                List<long[]> scopeRows = rows.computeIfAbsent(line.substring(0, separator), k -> new ArrayList<>());
+                for (String counter : line.substring(separator + 1).split(";")) {
+                    String[] parts = counter.split(",");
+                    scopeRows.add(new long[] {Long.parseLong(parts[0]), Long.parseLong(parts[1]), 0L,
+                            Long.parseLong(parts[2]), Long.parseLong(parts[3])});
+                }
+            }
+        }
+        return rows;
+    }
+
+    private List<Entry> rank(List<List<long[]>> rowSets) {
+        Map<Long, long[]> merged = new HashMap<>();
+        for (List<long[]> rows : rowSets) {
+            for (long[] row : rows) {
+                long[] acc = merged.computeIfAbsent(row[0], k -> new long[3]);
+                acc[0] += row[1];
+                acc[1] += row[3];
+                acc[2] += row[4];
+            }
+        }
+
+        PriorityQueue<Map.Entry<Long, long[]>> heap =
+                new PriorityQueue<>(Comparator.comparingLong(e -> e.getValue()[0]));
+        for (Map.Entry<Long, long[]> entry : merged.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > viewSize) {
+                heap.poll();
+            }
+        }
+
+        List<Entry> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            Map.Entry<Long, long[]> e = heap.poll();
+            ranked.add(new Entry(e.getKey(), BigDecimal.valueOf(e.getValue()[1], 2), e.getValue()[2]));
+        }
+        Collections.reverse(ranked);
+        return List.copyOf(ranked);
+    }
+
+    private static String viewKey(Window window, Metric metric) {
+        return window.name() + ":" + metric.name();
+    }
+
+    private static long toCents(Object amount) {
+        return new BigDecimal(amount.toString()).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // Per-day bucket pairs for the sliding windows plus an all-time pair
+    private static final class Sketches {
+
+        private final int capacity;
+        private final Map<LocalDate, Buckets> days = new ConcurrentHashMap<>();
+        private final Buckets allTime;
+
+        Sketches(int capacity) {
+            this.capacity = capacity;
+            this.allTime = new Buckets(capacity);
+        }
+
+        static Sketches exact(int capacity, Map<LocalDate, List<long[]>> dailyRows, List<long[]> allTimeRows) {
+            Sketches sketches = new Sketches(capacity, Buckets.exact(capacity, allTimeRows));
+            dailyRows.forEach((day, rows) -> sketches.days.put(day, Buckets.exact(capacity, rows)));
+            return sketches;
+        }
+
+        private Sketches(int capacity, Buckets allTime) {
+            this.capacity = capacity;
+            this.allTime = allTime;
+        }
+
+        void add(LocalDate day, List<OrderItem> items) {
+            if (!day.isBefore(LocalDate.now().minusDays(RETAINED_DAYS - 1))) {
+                days.computeIfAbsent(day, d -> new Buckets(capacity)).add(items);
+            }
+            allTime.add(items);
+        }
+
+        void expire(LocalDate today) {
+            days.keySet().removeIf(day -> day.isBefore(today.minusDays(RETAINED_DAYS - 1)));
+        }
+
+        void collect(Window window, Metric metric, LocalDate today, List<List<long[]>> rows) {
+            if (window == Window.ALL_TIME) {
+                rows.add(allTime.sketch(metric).snapshot());
+                return;
+            }
+            days.forEach((day, b) -> {
+                if (!day.isBefore(today.minusDays(window.days - 1))) {
+                    rows.add(b.sketch(metric).snapshot());
+                }
+            });
+        }
+
+        String encode() {
+            StringBuilder out = new StringBuilder();
+            days.forEach((day, b) -> b.encode(String.valueOf(day.toEpochDay()), out));
+            allTime.encode(ALL_TIME_SCOPE, out);
+            return out.toString();
+        }
+    }
+
+    private static final class Buckets {
+
+        private final SpaceSavingSketch revenue;
+        private final SpaceSavingSketch units;
+
+        Buckets(int capacity) {
+            this.revenue = new SpaceSavingSketch(capacity);
+            this.units = new SpaceSavingSketch(capacity);
+        }
+
+        // Rows are {productId, revenueCents, units}; only the heaviest hitters fit
+        static Buckets exact(int capacity, List<long[]> rows) {
+            Buckets buckets = new Buckets(capacity);
+            rows.sort(Comparator.comparingLong((long[] r) -> r[1]).reversed());
+            rows.stream().limit(capacity).forEach(r -> buckets.revenue.put(r[0], r[1], r[1], r[2]));
+            rows.sort(Comparator.comparingLong((long[] r) -> r[2]).reversed());
+            rows.stream().limit(capacity).forEach(r -> buckets.units.put(r[0], r[2], r[1], r[2]));
+            return buckets;
+        }
+
+        SpaceSavingSketch sketch(Metric metric) {
+            return metric == Metric.REVENUE ? revenue : units;
+        }
+
+        void encode(String scope, StringBuilder out) {
+            for (Metric metric : Metric.values()) {
+                List<long[]> rows = sketch(metric).snapshot();
+                if (rows.isEmpty()) {
+                    continue;
+                }
+                out.append(scope).append(':').append(metric.name()).append('|');
+                for (int i = 0; i < rows.size(); i++) {
+                    long[] row = rows.get(i);
+                    out.append(i > 0 ? ";" : "").append(row[0]).append(',').append(row[1])
+                            .append(',').append(row[3]).append(',').append(row[4]);
+                }
+                out.append('\n');
+            }
+        }
+
+        void add(List<OrderItem> items) {
+            for (OrderItem item : items) {
+                long cents = toCents(item.getUnitPrice()) * item.getQuantity();
+                revenue.add(item.getProductId(), cents, cents, item.getQuantity());
+                units.add(item.getProductId(), item.getQuantity(), cents, item.getQuantity());
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.entity.OrderItem;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds the order line items of one consumer batch per product and day into product_sales_stats
+ * and product_sales_daily with one batched upsert per table. The consumer writes before it commits
+ * its offsets, so nothing is held only in memory. Rows for products missing from the products
+ * table are skipped rather than failing the batch.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSalesStatsService {
+
+    // Joining products drops rows for unknown or deleted products instead of violating the foreign key
+    private static final String UPSERT_DAILY = """
+        INSERT INTO product_sales_daily (product_id, day, units, revenue)
+        SELECT p.id, CAST(? AS DATE), CAST(? AS BIGINT), CAST(? AS DECIMAL(14,2))
+        FROM products p WHERE p.id = ?
+        ON CONFLICT (product_id, day) DO UPDATE SET
+            units = product_sales_daily.units + EXCLUDED.units,
+            revenue = product_sales_daily.revenue + EXCLUDED.revenue
+        """;
+
+    private static final String UPSERT_STATS = """
+        INSERT INTO product_sales_stats (product_id, units_sold, gross_revenue, last_sale_at, units_7d, units_30d, updated_at)
+        SELECT p.id, CAST(? AS BIGINT), CAST(? AS DECIMAL(14,2)), CAST(? AS TIMESTAMP), CAST(? AS BIGINT),
+               CAST(? AS BIGINT), CURRENT_TIMESTAMP
+        FROM products p WHERE p.id = ?
+        ON CONFLICT (product_id) DO UPDATE SET
+            units_sold = product_sales_stats.units_sold + EXCLUDED.units_sold,
+            gross_revenue = product_sales_stats.gross_revenue + EXCLUDED.gross_revenue,
+            last_sale_at = GREATEST(product_sales_stats.last_sale_at, EXCLUDED.last_sale_at),
+            units_7d = product_sales_stats.units_7d + EXCLUDED.units_7d,
+            units_30d = product_sales_stats.units_30d + EXCLUDED.units_30d,
+            updated_at = CURRENT_TIMESTAMP
+        """;
+
+    private static final String SLIDE_WINDOWS = """
+        UPDATE product_sales_stats s SET
+            units_7d = COALESCE((SELECT SUM(d.units) FROM product_sales_daily d
+                                 WHERE d.product_id = s.product_id AND d.day >= CURRENT_DATE - 6), 0),
+            units_30d = COALESCE((SELECT SUM(d.units) FROM product_sales_daily d
+                                  WHERE d.product_id = s.product_id AND d.day >= CURRENT_DATE - 29), 0),
+            updated_at = CURRENT_TIMESTAMP
+        WHERE s.units_30d > 0
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public record Sale(LocalDateTime orderDate, List<OrderItem> items) {
+    }
+
+    // All or nothing: throws when the sales could not be written, so the caller can retry them
+    public void write(List<Sale> sales) {
+        Map<DayKey, Delta> deltas = new HashMap<>();
+        for (Sale sale : sales) {
+            for (OrderItem item : sale.items()) {
+                BigDecimal revenue = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+                deltas.computeIfAbsent(new DayKey(item.getProductId(), sale.orderDate().toLocalDate()), k -> new Delta())
+                        .add(item.getQuantity(), revenue, sale.orderDate());
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            upsert(deltas);
+        } catch (DataIntegrityViolationException e) {
+            // Only a product deleted between the join and the write gets here; the join skips it next time
+            log.warn("Product sales stats batch rejected, retrying once: {}", e.getMessage());
+            upsert(deltas);
+        }
+    }
+
+    private void upsert(Map<DayKey, Delta> deltas) {
+        LocalDate today = LocalDate.now();
+        Map<Long, long[]> statsUnits = new HashMap<>();
+        Map<Long, BigDecimal> statsRevenue = new HashMap<>();
+        Map<Long, LocalDateTime> lastSales = new HashMap<>();
+        List<Object[]> dailyRows = new ArrayList<>(deltas.size());
+
+        deltas.forEach((key, delta) -> {
+            dailyRows.add(new Object[] {Date.valueOf(key.day()), delta.units, delta.revenue, key.productId()});
+            long[] units = statsUnits.computeIfAbsent(key.productId(), id -> new long[3]);
+            units[0] += delta.units;
+            if (!key.day().isBefore(today.minusDays(6))) {
+                units[1] += delta.units;
+            }
+            if (!key.day().isBefore(today.minusDays(29))) {
+                units[2] += delta.units;
+            }
+            statsRevenue.merge(key.productId(), delta.revenue, BigDecimal::add);
+            lastSales.merge(key.productId(), delta.lastSaleAt, (a, b) -> a.isAfter(b) ? a : b);
+        });
+
+        List<Object[]> statsRows = new ArrayList<>(statsUnits.size());
+        statsUnits.forEach((productId, units) -> statsRows.add(new Object[] {
+                units[0], statsRevenue.get(productId), Timestamp.valueOf(lastSales.get(productId)),
+                units[1], units[2], productId}));
+
+        int skipped = transactionTemplate.execute(status -> {
+            jdbcTemplate.batchUpdate(UPSERT_DAILY, dailyRows);
+            return unmatched(jdbcTemplate.batchUpdate(UPSERT_STATS, statsRows));
+        });
+        if (skipped > 0) {
+            log.warn("Skipped sales stats for {} of {} products not in the products table", skipped, statsRows.size());
+        }
+    }
+
+    private static int unmatched(int[] updateCounts) {
+        int unmatched = 0;
+        for (int count : updateCounts) {
+            if (count == 0) {
+                unmatched++;
+            }
+        }
+        return unmatched;
+    }
+
+    // Drops expired days from the 7d/30d counters once the calendar day rolls over
+    @Scheduled(cron = "${app.product-stats.slide-cron:0 5 0 * * *}")
+    public void slideVelocityWindows() {
+        transactionTemplate.executeWithoutResult(status -> {
+            int updated = jdbcTemplate.update(SLIDE_WINDOWS);
+            int purged = jdbcTemplate.update("DELETE FROM product_sales_daily WHERE day < CURRENT_DATE - 29");
+            log.info("Product sales velocity windows slid for {} products, {} expired daily rows purged", updated, purged);
+        });
+    }
+
+    private record DayKey(Long productId, LocalDate day) {
+    }
+
+    private static final class Delta {
+
+        private long units;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private LocalDateTime lastSaleAt;
+
+        void add(long quantity, BigDecimal amount, LocalDateTime saleAt) {
+            units += quantity;
+            revenue = revenue.add(amount);
+            if (lastSaleAt == null || saleAt.isAfter(lastSaleAt)) {
+                lastSaleAt = saleAt;
+            }
+        }
+    }
+}
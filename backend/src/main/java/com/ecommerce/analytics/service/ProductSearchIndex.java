@@ -0,0 +1,263 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.dto.ProductSuggestionDTO;
+import com.ecommerce.analytics.entity.Product;
+import com.ecommerce.analytics.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process prefix index over product name tokens and SKUs for autocomplete. Terms live in a
+ * sorted map, so a prefix lookup is a range scan; product events update single entries and a
+ * periodic rebuild from the products table repairs anything missed. Products reindexed while a
+ * rebuild is loading are reindexed again into the rebuilt index, so no update is lost to the swap.
+ */
+@Service
+@Slf4j
+public class ProductSearchIndex {
+
+    private final ProductRepository productRepository;
+    private final int maxCandidates;
+
+    private final Object swapLock = new Object();
+    private volatile Index index = new Index();
+    // Non-null while a rebuild is loading; guarded by swapLock
+    private Set<Long> reindexedDuringRebuild;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              @Value("${app.search.max-candidates:1000}") int maxCandidates) {
+        this.productRepository = productRepository;
+        this.maxCandidates = maxCandidates;
+    }
+
+    public List<ProductSuggestionDTO> autocomplete(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Index current = index;
+        String normalizedQuery = String.join(" ", terms);
+        List<Scored> scored = new ArrayList<>();
+        for (Long productId : candidates(current, terms, normalizedQuery)) {
+            Document document = current.documents.get(productId);
+            if (document != null) {
+                int score = document.score(terms, normalizedQuery);
+                if (score > 0) {
+                    scored.add(new Scored(document, score));
+                }
+            }
+        }
+
+        return scored.stream()
+                .sorted(Comparator.comparingInt(Scored::score).reversed()
+                        .thenComparingInt(s -> s.document().name().length())
+                        .thenComparingLong(s -> s.document().id()))
+                .limit(limit)
+                .map(s -> new ProductSuggestionDTO(s.document().id(), s.document().name(), s.document().sku()))
+                .toList();
+    }
+
+    // Every query term must match, so scanning the rarest term's postings finds every hit while
+    // touching the fewest candidates. SKU matches need not contain that term as a token, so the
+    // SKU prefix range is scanned as well.
+    private Set<Long> candidates(Index current, List<String> terms, String normalizedQuery) {
+        String rarest = terms.get(0);
+        long fewest = current.postingCount(rarest, Long.MAX_VALUE);
+        for (int i = 1; i < terms.size() && fewest > 0; i++) {
+            long count = current.postingCount(terms.get(i), fewest);
+            if (count < fewest) {
+                rarest = terms.get(i);
+                fewest = count;
+            }
+        }
+        Set<Long> candidates = current.candidates(rarest, maxCandidates);
+        if (terms.size() > 1) {
+            candidates.addAll(current.candidates(normalizedQuery.replace(' ', '-'), maxCandidates));
+        }
+        return candidates;
+    }
+
+    public void reindex(Long productId) {
+        reindex(List.of(productId));
+    }
+
+    public void reindex(Collection<Long> productIds) {
+        List<Product> products = productRepository.findAllById(productIds);
+        synchronized (swapLock) {
+            if (reindexedDuringRebuild != null) {
+                reindexedDuringRebuild.addAll(productIds);
+            }
+            Set<Long> missing = new HashSet<>(productIds);
+            for (Product product : products) {
+                missing.remove(product.getId());
+                index(product);
+            }
+            missing.forEach(index::remove);
+        }
+    }
+
+    private void index(Product product) {
+        if (Boolean.TRUE.equals(product.getIsActive())) {
+            index.put(new Document(product.getId(), product.getName(), product.getSku()));
+        } else {
+            index.remove(product.getId());
+        }
+    }
+
+    // The products query runs outside the lock, so reindexing is only held up for the swap itself
+    @Scheduled(fixedDelayString = "${app.search.rebuild-ms:3600000}")
+    public void rebuild() {
+        synchronized (swapLock) {
+            reindexedDuringRebuild = new HashSet<>();
+        }
+        Index rebuilt = new Index();
+        try {
+            for (Object[] row : productRepository.findActiveSearchFields()) {
+                rebuilt.put(new Document((Long) row[0], (String) row[1], (String) row[2]));
+            }
+        } catch (RuntimeException e) {
+            synchronized (swapLock) {
+                reindexedDuringRebuild = null;
+            }
+            throw e;
+        }
+
+        Set<Long> replay;
+        synchronized (swapLock) {
+            index = rebuilt;
+            replay = reindexedDuringRebuild;
+            reindexedDuringRebuild = null;
+        }
+        // Re-read, since the rebuild query may have run before or after any of these updates
+        if (!replay.isEmpty()) {
+            reindex(replay);
+        }
+        log.info("Product search index rebuilt with {} products and {} terms, {} concurrent updates replayed",
+                rebuilt.documents.size(), rebuilt.postings.size(), replay.size());
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{Alnum}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private record Scored(Document document, int score) {
+    }
+
+    private record Document(Long id, String name, String sku, List<String> nameTokens, String normalizedName,
+                            String normalizedSku) {
+
+        Document(Long id, String name, String sku) {
+            this(id, name, sku, tokenize(name), String.join(" ", tokenize(name)),
+                    sku != null ? sku.toLowerCase(Locale.ROOT) : "");
+        }
+
+        List<String> terms() {
+            List<String> terms = new ArrayList<>(nameTokens);
+            if (!normalizedSku.isEmpty()) {
+                terms.add(normalizedSku);
+            }
+            return terms;
+        }
+
+        // Every query term must prefix some token; exact and leading matches rank higher
+        int score(List<String> queryTerms, String normalizedQuery) {
+            if (normalizedSku.startsWith(normalizedQuery.replace(' ', '-'))) {
+                return 100;
+            }
+
+            int score = normalizedName.startsWith(normalizedQuery) ? 20 : 0;
+            for (String term : queryTerms) {
+                int best = 0;
+                for (int i = 0; i < nameTokens.size(); i++) {
+                    String token = nameTokens.get(i);
+                    if (token.equals(term)) {
+                        best = Math.max(best, i == 0 ? 12 : 10);
+                    } else if (token.startsWith(term)) {
+                        best = Math.max(best, i == 0 ? 7 : 5);
+                    }
+                }
+                if (best == 0) {
+                    return 0;
+                }
+                score += best;
+            }
+            return score;
+        }
+    }
+
+    private static final class Index {
+
+        private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+        private final NavigableMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+
+        void put(Document document) {
+            remove(document.id());
+            documents.put(document.id(), document);
+            for (String term : document.terms()) {
+                postings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(document.id());
+            }
+        }
+
+        void remove(Long productId) {
+            Document previous = documents.remove(productId);
+            if (previous != null) {
+                for (String term : previous.terms()) {
+                    postings.computeIfPresent(term, (t, ids) -> {
+                        ids.remove(productId);
+                        return ids.isEmpty() ? null : ids;
+                    });
+                }
+            }
+        }
+
+        // Posting entries under the prefix, counted only until they exceed limit
+        long postingCount(String prefix, long limit) {
+            long count = 0;
+            for (Set<Long> ids : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                count += ids.size();
+                if (count > limit) {
+                    return count;
+                }
+            }
+            return count;
+        }
+
+        Set<Long> candidates(String prefix, int max) {
+            Set<Long> candidates = new LinkedHashSet<>();
+            for (Set<Long> ids : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                for (Long id : ids) {
+                    candidates.add(id);
+                    if (candidates.size() >= max) {
+                        return candidates;
+                    }
+                }
+            }
+            return candidates;
+        }
+    }
+}
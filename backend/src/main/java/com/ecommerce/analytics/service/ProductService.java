@@ -1,7 +1,10 @@
 package com.ecommerce.analytics.service;
 
+import com.ecommerce.analytics.dto.CachedPage;
+import com.ecommerce.analytics.dto.CursorPage;
 import com.ecommerce.analytics.dto.ProductDTO;
-import com.ecommerce.analytics.entity.Product;
+import com.ecommerce.analytics.dto.ProductRow;
+import com.ecommerce.analytics.dto.ProductSuggestionDTO;
 import com.ecommerce.analytics.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
@@ -10,7 +13,10 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,27 +24,46 @@ import java.util.stream.Collectors;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductLeaderboard productLeaderboard;
+    private final ProductDimensionRegistry dimensionRegistry;
+    private final ProductSearchIndex productSearchIndex;
 
-    @Cacheable(value = "productMetrics", key = "'all-products'")
-    public Page<ProductDTO> getAllProducts(int page, int size) {
+    @Cacheable(value = "productMetrics", key = "'all-products:' + #page + ':' + #size", sync = true)
+    public CachedPage<ProductDTO> getAllProducts(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productRepository.findActiveProducts(pageable);
+        Page<ProductRow> products = productRepository.findActiveProducts(pageable);
         
-        return products.map(this::convertToDTO);
+        return CachedPage.of(products.map(this::convertToDTO));
+    }
+
+    public CursorPage<ProductDTO> getProductsAfter(String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor);
+        List<ProductRow> products = productRepository.findActiveProductsAfter(
+                position != null ? position.id() : 0L, PageCursor.probe(size));
+        return PageCursor.page(products, size, p -> new PageCursor(null, p.id()), this::convertToDTO);
     }
 
-    @Cacheable(value = "productMetrics", key = "'top-selling'")
-    public List<ProductDTO> getTopSellingProducts(int limit) {
-        Pageable pageable = PageRequest.of(0, limit);
-        List<Product> products = productRepository.findTopSellingProducts(pageable);
+    public List<ProductDTO> getTopSellingProducts(int limit, ProductLeaderboard.Window window,
+                                                  ProductLeaderboard.Metric metric) {
+        List<ProductLeaderboard.Entry> entries = productLeaderboard.top(window, metric, limit);
+        Map<Long, ProductRow> products = productRepository.findRowsByIdIn(
+                        entries.stream().map(ProductLeaderboard.Entry::productId).toList())
+                .stream()
+                .collect(Collectors.toMap(ProductRow::id, Function.identity()));
         
-        return products.stream()
-                .map(this::convertToDTO)
+        return entries.stream()
+                .filter(entry -> products.containsKey(entry.productId()))
+                .map(entry -> {
+                    ProductDTO dto = convertToDTO(products.get(entry.productId()));
+                    dto.setTotalRevenue(entry.revenue());
+                    dto.setUnitsSold(Math.toIntExact(entry.units()));
+                    return dto;
+                })
                 .collect(Collectors.toList());
     }
 
     public List<ProductDTO> getLowStockProducts(int threshold) {
-        List<Product> products = productRepository.findLowStockProducts(threshold);
+        List<ProductRow> products = productRepository.findLowStockProducts(threshold);
         
         return products.stream()
                 .map(this::convertToDTO)
@@ -47,32 +72,40 @@ public class ProductService {
 
     public Page<ProductDTO> searchProducts(String query, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productRepository.findByNameContainingIgnoreCase(query, pageable);
+        Page<ProductRow> products = productRepository.searchActiveProducts(containsPattern(query), query, pageable);
         
         return products.map(this::convertToDTO);
     }
 
-    private ProductDTO convertToDTO(Product product) {
+    // A literal % or _ in the query must not act as a wildcard
+    private static String containsPattern(String query) {
+        String escaped = query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    public List<ProductSuggestionDTO> autocomplete(String query, int limit) {
+        return productSearchIndex.autocomplete(query, limit);
+    }
+
+    private ProductDTO convertToDTO(ProductRow product) {
         ProductDTO dto = new ProductDTO();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setSku(product.getSku());
-        dto.setPrice(product.getPrice());
-        dto.setInventory(product.getInventory());
-        dto.setRating(product.getRating());
-        dto.setReviewCount(product.getReviewCount());
-        
-        if (product.getCategory() != null) {
-            dto.setCategoryName(product.getCategory().getName());
-        }
-        
-        if (product.getVendor() != null) {
-            dto.setVendorName(product.getVendor().getName());
-        }
+        dto.setId(product.id());
+        dto.setName(product.name());
+        dto.setSku(product.sku());
+        dto.setPrice(product.price());
+        dto.setInventory(product.inventory());
+        dto.setRating(product.rating());
+        dto.setReviewCount(product.reviewCount());
+        dto.setCategoryName(dimensionRegistry.categoryName(product.categoryId()));
+        dto.setVendorName(dimensionRegistry.vendorName(product.vendorId()));
         
-        // Calculate additional metrics (would typically come from aggregated data)
-        dto.setTotalRevenue(product.getPrice().multiply(java.math.BigDecimal.valueOf(product.getInventory())));
-        dto.setUnitsSold(0); // Would be calculated from order items
+        // Sales figures come from the product_sales_stats read model; velocities are units per day
+        long unitsSold = product.unitsSold() != null ? product.unitsSold() : 0L;
+        dto.setTotalRevenue(product.grossRevenue() != null ? product.grossRevenue() : BigDecimal.ZERO);
+        dto.setUnitsSold(Math.toIntExact(unitsSold));
+        dto.setLastSaleAt(product.lastSaleAt());
+        dto.setVelocity7d(product.units7d() != null ? product.units7d() / 7.0 : 0.0);
+        dto.setVelocity30d(product.units30d() != null ? product.units30d() / 30.0 : 0.0);
         
         return dto;
     }
@@ -0,0 +1,81 @@
+package com.ecommerce.analytics.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter made of two generations. Inserts go to the current generation and
+ * lookups check both; {@link #rotate()} drops the older one, so after each rotation the filter
+ * still remembers at least one full rotation period.
+ */
+final class RotatingBloomFilter {
+
+    private final long bits;
+    private final int hashes;
+
+    private volatile AtomicLongArray current;
+    private volatile AtomicLongArray previous;
+
+    // Standard sizing: m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 hash functions
+    RotatingBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = Math.max(64L, (m + 63) / 64 * 64);
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        this.current = new AtomicLongArray((int) (bits / 64));
+        this.previous = new AtomicLongArray((int) (bits / 64));
+    }
+
+    boolean mightContain(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        return contains(current, h1, h2) || contains(previous, h1, h2);
+    }
+
+    void put(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        AtomicLongArray generation = current;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long value;
+            do {
+                value = generation.get(word);
+            } while ((value & mask) == 0 && !generation.compareAndSet(word, value, value | mask));
+        }
+    }
+
+    synchronized void rotate() {
+        previous = current;
+        current = new AtomicLongArray((int) (bits / 64));
+    }
+
+    private boolean contains(AtomicLongArray generation, long h1, long h2) {
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((generation.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a over the UTF-16 chars, finished with the MurmurHash3 64-bit mixer
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
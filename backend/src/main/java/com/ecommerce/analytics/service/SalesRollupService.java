@@ -0,0 +1,72 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.entity.RollupWatermark;
+import com.ecommerce.analytics.repository.OrderRepository;
+import com.ecommerce.analytics.repository.RollupWatermarkRepository;
+import com.ecommerce.analytics.repository.SalesMetricRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupService {
+
+    public static final String MINUTELY = "MINUTE";
+    public static final String HOURLY = "HOUR";
+    public static final String DAILY = "DAY";
+    public static final List<String> GRANULARITIES = List.of(MINUTELY, HOURLY, DAILY);
+
+    static final String WATERMARK_NAME = "sales_metrics";
+
+    private final OrderRepository orderRepository;
+    private final SalesMetricRepository salesMetricRepository;
+    private final RollupWatermarkRepository rollupWatermarkRepository;
+
+    @Value("${app.rollup.batch-size:50000}")
+    private long batchSize;
+
+    @Value("${app.rollup.trailing-window-hours:48}")
+    private int trailingWindowHours;
+
+    @Value("${app.rollup.minute-retention-days:30}")
+    private int minuteRetentionDays;
+
+    // The watermark row lock serialises runs across nodes; each run folds at most one batch of new orders.
+    // The id watermark alone misses status changes and orders that commit after a higher id was rolled up,
+    // so every run also recomputes the buckets of the trailing window
+    @Scheduled(fixedDelayString = "${app.rollup.interval-ms:60000}")
+    @Transactional
+    public void rollupSalesMetrics() {
+        RollupWatermark watermark = rollupWatermarkRepository.findByNameForUpdate(WATERMARK_NAME)
+                .orElseGet(() -> new RollupWatermark(WATERMARK_NAME, 0L, null));
+
+        Long maxOrderId = orderRepository.findMaxId();
+        long fromOrderId = watermark.getLastOrderId();
+        long toOrderId = maxOrderId == null ? fromOrderId : Math.max(fromOrderId, Math.min(maxOrderId, fromOrderId + batchSize));
+        LocalDateTime since = LocalDateTime.now().minusHours(trailingWindowHours);
+
+        int minutely = salesMetricRepository.rollupOrders(MINUTELY, "minute", "1 minute", fromOrderId, toOrderId, since);
+        int hourly = salesMetricRepository.rollupOrders(HOURLY, "hour", "1 hour", fromOrderId, toOrderId, since);
+        int daily = salesMetricRepository.rollupOrders(DAILY, "day", "1 day", fromOrderId, toOrderId, since);
+        int emptied = salesMetricRepository.deleteEmptiedBuckets(MINUTELY, "minute", "1 minute", since)
+                + salesMetricRepository.deleteEmptiedBuckets(HOURLY, "hour", "1 hour", since)
+                + salesMetricRepository.deleteEmptiedBuckets(DAILY, "day", "1 day", since);
+        salesMetricRepository.deleteByGranularityAndDateBefore(MINUTELY,
+                LocalDateTime.now().minusDays(minuteRetentionDays));
+
+        watermark.setLastOrderId(toOrderId);
+        // Touched on every run, not only when the id moves, so SalesTimeSeriesService reloads re-rolled buckets
+        watermark.setUpdatedAt(LocalDateTime.now());
+        rollupWatermarkRepository.save(watermark);
+        log.info("Rolled up orders ({}, {}] and the last {}h into {} minute, {} hourly and {} daily sales buckets; "
+                + "{} emptied buckets removed", fromOrderId, toOrderId, trailingWindowHours, minutely, hourly, daily, emptied);
+    }
+}
@@ -0,0 +1,133 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.dto.SalesChartDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable column-oriented copy of one sales_metrics granularity, sorted by bucket start.
+ * Range queries binary-search the timestamp column and downsample with LTTB.
+ */
+final class SalesSeriesSegment {
+
+    static final SalesSeriesSegment EMPTY = new SalesSeriesSegment(new long[0], new double[0], new double[0], new double[0]);
+
+    private final long[] timestamps;
+    private final double[] sales;
+    private final double[] orders;
+    private final double[] averageOrderValues;
+
+    private SalesSeriesSegment(long[] timestamps, double[] sales, double[] orders, double[] averageOrderValues) {
+        this.timestamps = timestamps;
+        this.sales = sales;
+        this.orders = orders;
+        this.averageOrderValues = averageOrderValues;
+    }
+
+    // Rows are (date, totalSales, totalOrders, averageOrderValue) ordered by date
+    static SalesSeriesSegment fromRows(List<Object[]> rows) {
+        int size = rows.size();
+        long[] timestamps = new long[size];
+        double[] sales = new double[size];
+        double[] orders = new double[size];
+        double[] averageOrderValues = new double[size];
+        for (int i = 0; i < size; i++) {
+            Object[] row = rows.get(i);
+            timestamps[i] = ((LocalDateTime) row[0]).toEpochSecond(ZoneOffset.UTC);
+            sales[i] = ((BigDecimal) row[1]).doubleValue();
+            orders[i] = ((Number) row[2]).doubleValue();
+            averageOrderValues[i] = ((BigDecimal) row[3]).doubleValue();
+        }
+        return new SalesSeriesSegment(timestamps, sales, orders, averageOrderValues);
+    }
+
+    int size() {
+        return timestamps.length;
+    }
+
+    List<SalesChartDTO> query(LocalDateTime from, LocalDateTime to, int maxPoints) {
+        int start = lowerBound(from.toEpochSecond(ZoneOffset.UTC));
+        int end = lowerBound(to.toEpochSecond(ZoneOffset.UTC) + 1);
+
+        int[] indices = largestTriangleThreeBuckets(start, end, maxPoints);
+        List<SalesChartDTO> points = new ArrayList<>(indices.length);
+        for (int i : indices) {
+            points.add(new SalesChartDTO(
+                    LocalDateTime.ofEpochSecond(timestamps[i], 0, ZoneOffset.UTC),
+                    BigDecimal.valueOf(sales[i]).setScale(2, RoundingMode.HALF_UP),
+                    (int) orders[i],
+                    BigDecimal.valueOf(averageOrderValues[i]).setScale(2, RoundingMode.HALF_UP)));
+        }
+        return points;
+    }
+
+    private int lowerBound(long timestamp) {
+        int low = 0;
+        int high = timestamps.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Largest-Triangle-Three-Buckets over sales, keeping the first and last points of the range
+    private int[] largestTriangleThreeBuckets(int start, int end, int threshold) {
+        int count = Math.max(0, end - start);
+        if (count <= threshold) {
+            int[] all = new int[count];
+            for (int i = 0; i < count; i++) {
+                all[i] = start + i;
+            }
+            return all;
+        }
+
+        int[] sampled = new int[threshold];
+        double every = (double) (count - 2) / (threshold - 2);
+        int a = start;
+        sampled[0] = start;
+
+        for (int i = 0; i < threshold - 2; i++) {
+            int avgStart = start + (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min(start + (int) Math.floor((i + 2) * every) + 1, end);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += timestamps[j];
+                avgY += sales[j];
+            }
+            int avgLength = Math.max(1, avgEnd - avgStart);
+            avgX /= avgLength;
+            avgY /= avgLength;
+
+            int rangeStart = start + (int) Math.floor(i * every) + 1;
+            int rangeEnd = start + (int) Math.floor((i + 1) * every) + 1;
+            double pointAX = timestamps[a];
+            double pointAY = sales[a];
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((pointAX - avgX) * (sales[j] - pointAY)
+                        - (pointAX - timestamps[j]) * (avgY - pointAY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampled[i + 1] = next;
+            a = next;
+        }
+
+        sampled[threshold - 1] = end - 1;
+        return sampled;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.dto.SalesChartDTO;
+import com.ecommerce.analytics.entity.RollupWatermark;
+import com.ecommerce.analytics.repository.RollupWatermarkRepository;
+import com.ecommerce.analytics.repository.SalesMetricRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesTimeSeriesService {
+
+    private final SalesMetricRepository salesMetricRepository;
+    private final RollupWatermarkRepository rollupWatermarkRepository;
+
+    private final Map<String, SalesSeriesSegment> segments = new ConcurrentHashMap<>();
+    private volatile LocalDateTime loadedRollupAt;
+
+    @Value("${app.timeseries.max-points:2000}")
+    private int maxPointsLimit;
+
+    @Value("${app.rollup.minute-retention-days:30}")
+    private int minuteRetentionDays;
+
+    public List<SalesChartDTO> getSalesSeries(LocalDateTime from, LocalDateTime to, String bucket, int maxPoints) {
+        String granularity = bucket.toUpperCase(Locale.ROOT);
+        if (!SalesRollupService.GRANULARITIES.contains(granularity)) {
+            throw new IllegalArgumentException("Unsupported bucket: " + bucket);
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+
+        SalesSeriesSegment segment = segments.get(granularity);
+        if (segment == null) {
+            refreshSegments();
+            segment = segments.getOrDefault(granularity, SalesSeriesSegment.EMPTY);
+        }
+        return segment.query(from, to, Math.max(3, Math.min(maxPoints, maxPointsLimit)));
+    }
+
+    // Rebuilds the in-memory segments whenever the rollup job has run since the last load
+    @Scheduled(fixedDelayString = "${app.timeseries.refresh-ms:30000}")
+    public synchronized void refreshSegments() {
+        RollupWatermark watermark = rollupWatermarkRepository.findById(SalesRollupService.WATERMARK_NAME)
+                .orElseGet(() -> new RollupWatermark(SalesRollupService.WATERMARK_NAME, 0L, null));
+        if (watermark.getUpdatedAt() != null && watermark.getUpdatedAt().equals(loadedRollupAt) && !segments.isEmpty()) {
+            return;
+        }
+
+        for (String granularity : SalesRollupService.GRANULARITIES) {
+            LocalDateTime since = SalesRollupService.MINUTELY.equals(granularity)
+                    ? LocalDateTime.now().minusDays(minuteRetentionDays)
+                    : LocalDateTime.of(1970, 1, 1, 0, 0);
+            segments.put(granularity, SalesSeriesSegment.fromRows(
+                    salesMetricRepository.findSeriesRowsFromDate(granularity, since)));
+        }
+        loadedRollupAt = watermark.getUpdatedAt();
+        log.info("Sales time-series segments reloaded at watermark {} ({} minute, {} hour, {} day points)",
+                watermark.getLastOrderId(),
+                segments.get(SalesRollupService.MINUTELY).size(),
+                segments.get(SalesRollupService.HOURLY).size(),
+                segments.get(SalesRollupService.DAILY).size());
+    }
+}
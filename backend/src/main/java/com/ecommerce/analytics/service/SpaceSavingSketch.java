@@ -0,0 +1,141 @@
+package com.ecommerce.analytics.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighted Space-Saving heavy-hitter summary with a fixed number of counters. Each counter
+ * tracks its ranking weight, the over-estimation error inherited on eviction, and the revenue
+ * and units seen for display. Counters sit in an indexed min-heap on their ranking weight, so
+ * finding the counter to evict is O(1) and every update is O(log capacity).
+ */
+final class SpaceSavingSketch {
+
+    private final int capacity;
+    private final Map<Long, Counter> counters;
+    private final Counter[] heap;
+    private int size;
+
+    SpaceSavingSketch(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    synchronized void add(long key, long rankWeight, long revenueCents, long units) {
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            if (size < capacity) {
+                counter = new Counter(key, 0L, 0L);
+                insert(counter);
+            } else {
+                // Replace the smallest counter; the newcomer inherits its weight as error
+                Counter min = heap[0];
+                counters.remove(min.key);
+                counter = new Counter(key, min.rank, min.rank);
+                counter.slot = 0;
+                heap[0] = counter;
+            }
+            counters.put(key, counter);
+        }
+        counter.rank += rankWeight;
+        counter.revenueCents += revenueCents;
+        counter.units += units;
+        reposition(counter);
+    }
+
+    // Seeds an exact count, as produced by the periodic SQL recompute
+    synchronized void put(long key, long rank, long revenueCents, long units) {
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            if (size >= capacity) {
+                return;
+            }
+            counter = new Counter(key, rank, 0L);
+            insert(counter);
+            counters.put(key, counter);
+        }
+        counter.rank = rank;
+        counter.error = 0L;
+        counter.revenueCents = revenueCents;
+        counter.units = units;
+        reposition(counter);
+    }
+
+    // Returns {key, rank, error, revenueCents, units} rows
+    synchronized List<long[]> snapshot() {
+        List<long[]> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Counter c = heap[i];
+            rows.add(new long[] {c.key, c.rank, c.error, c.revenueCents, c.units});
+        }
+        return rows;
+    }
+
+    private void insert(Counter counter) {
+        counter.slot = size;
+        heap[size++] = counter;
+    }
+
+    // An exact reseed can lower a weight as well as raise it, so try both directions
+    private void reposition(Counter counter) {
+        siftUp(counter.slot);
+        siftDown(counter.slot);
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (heap[parent].rank <= heap[slot].rank) {
+                return;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int smallest = slot;
+            int left = 2 * slot + 1;
+            int right = left + 1;
+            if (left < size && heap[left].rank < heap[smallest].rank) {
+                smallest = left;
+            }
+            if (right < size && heap[right].rank < heap[smallest].rank) {
+                smallest = right;
+            }
+            if (smallest == slot) {
+                return;
+            }
+            swap(slot, smallest);
+            slot = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Counter first = heap[a];
+        heap[a] = heap[b];
+        heap[b] = first;
+        heap[a].slot = a;
+        heap[b].slot = b;
+    }
+
+    private static final class Counter {
+
+        private final long key;
+        private long rank;
+        private long error;
+        private long revenueCents;
+        private long units;
+        private int slot;
+
+        Counter(long key, long rank, long error) {
+            this.key = key;
+            this.rank = rank;
+            this.error = error;
+        }
+    }
+}
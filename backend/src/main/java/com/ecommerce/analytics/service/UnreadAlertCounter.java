@@ -0,0 +1,160 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.dto.UnreadAlertCountsDTO;
+import com.ecommerce.analytics.entity.Alert;
+import com.ecommerce.analytics.repository.AlertRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Unread alert counts kept in one Redis hash: {@code total}, {@code severity:<s>} and
+ * {@code type:<t>} fields, adjusted by HINCRBY as alerts are created and read. Reads are a
+ * single hash lookup; a periodic GROUP BY over the table replaces the hash to repair drift.
+ * Adjustments made inside a transaction are applied once it commits, so a rollback leaves the
+ * counts untouched.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UnreadAlertCounter {
+
+    static final String COUNTS_KEY = "alerts:unread-counts";
+
+    private static final String TOTAL = "total";
+    private static final String SEVERITY_PREFIX = "severity:";
+    private static final String TYPE_PREFIX = "type:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final AlertRepository alertRepository;
+
+    public void onCreated(Alert alert) {
+        if (!Boolean.TRUE.equals(alert.getIsRead())) {
+            adjust(alert.getId(), alert.getSeverity(), alert.getType(), 1);
+        }
+    }
+
+    public void onRead(Alert alert) {
+        adjust(alert.getId(), alert.getSeverity(), alert.getType(), -1);
+    }
+
+    public void onBulkRead(long total, Map<String, Long> bySeverity, Map<String, Long> byType) {
+        afterCommit(() -> {
+            try {
+                hash().increment(COUNTS_KEY, TOTAL, -total);
+                bySeverity.forEach((severity, count) -> hash().increment(COUNTS_KEY, SEVERITY_PREFIX + severity, -count));
+                byType.forEach((type, count) -> hash().increment(COUNTS_KEY, TYPE_PREFIX + type, -count));
+            } catch (Exception e) {
+                log.warn("Failed to adjust unread alert counters for {} alerts: {}", total, e.getMessage());
+            }
+        });
+    }
+
+    public long total() {
+        try {
+            String total = hash().get(COUNTS_KEY, TOTAL);
+            if (total == null) {
+                reconcile();
+                total = hash().get(COUNTS_KEY, TOTAL);
+            }
+            return total != null ? Long.parseLong(total) : 0L;
+        } catch (Exception e) {
+            log.warn("Unread alert counter unavailable, counting in the database: {}", e.getMessage());
+            return alertRepository.countUnreadAlerts();
+        }
+    }
+
+    public UnreadAlertCountsDTO counts() {
+        Map<String, String> fields;
+        try {
+            fields = hash().entries(COUNTS_KEY);
+            if (!fields.containsKey(TOTAL)) {
+                reconcile();
+                fields = hash().entries(COUNTS_KEY);
+            }
+        } catch (Exception e) {
+            log.warn("Unread alert counter unavailable, counting in the database: {}", e.getMessage());
+            fields = countFromDatabase();
+        }
+
+        Map<String, Long> bySeverity = new TreeMap<>();
+        Map<String, Long> byType = new TreeMap<>();
+        fields.forEach((field, value) -> {
+            long count = Long.parseLong(value);
+            if (count <= 0) {
+                return;
+            }
+            if (field.startsWith(SEVERITY_PREFIX)) {
+                bySeverity.put(field.substring(SEVERITY_PREFIX.length()), count);
+            } else if (field.startsWith(TYPE_PREFIX)) {
+                byType.put(field.substring(TYPE_PREFIX.length()), count);
+            }
+        });
+        return new UnreadAlertCountsDTO(Long.parseLong(fields.getOrDefault(TOTAL, "0")), bySeverity, byType);
+    }
+
+    // Increments landing between the query and the rename are lost until the next run
+    @Scheduled(fixedDelayString = "${app.alerts.unread-reconcile-ms:300000}")
+    public void reconcile() {
+        Map<String, String> fields = countFromDatabase();
+        String stagingKey = COUNTS_KEY + ":staging";
+        stringRedisTemplate.delete(stagingKey);
+        hash().putAll(stagingKey, fields);
+        stringRedisTemplate.rename(stagingKey, COUNTS_KEY);
+        log.debug("Unread alert counters reconciled: {} unread", fields.get(TOTAL));
+    }
+
+    private Map<String, String> countFromDatabase() {
+        Map<String, String> fields = new HashMap<>();
+        long total = 0;
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : alertRepository.countUnreadBySeverityAndType()) {
+            long count = ((Number) row[2]).longValue();
+            total += count;
+            counts.merge(SEVERITY_PREFIX + row[0], count, Long::sum);
+            counts.merge(TYPE_PREFIX + row[1], count, Long::sum);
+        }
+        counts.forEach((field, count) -> fields.put(field, Long.toString(count)));
+        fields.put(TOTAL, Long.toString(total));
+        return fields;
+    }
+
+    // Fields are read by the caller, so later changes to the entity cannot leak into the deferred update
+    private void adjust(Long alertId, String severity, String type, long delta) {
+        afterCommit(() -> {
+            try {
+                hash().increment(COUNTS_KEY, TOTAL, delta);
+                hash().increment(COUNTS_KEY, SEVERITY_PREFIX + severity, delta);
+                hash().increment(COUNTS_KEY, TYPE_PREFIX + type, delta);
+            } catch (Exception e) {
+                log.warn("Failed to adjust unread alert counters for alert {}: {}", alertId, e.getMessage());
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable adjustment) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            adjustment.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                adjustment.run();
+            }
+        });
+    }
+
+    private HashOperations<String, String, String> hash() {
+        return stringRedisTemplate.opsForHash();
+    }
+}
@@ -0,0 +1,2 @@
+-- The relay holds back a key while an earlier row of it is locked by another node
+CREATE INDEX idx_event_outbox_key ON event_outbox(event_key, id);
@@ -0,0 +1,4 @@
+-- The relay claims a batch in one short transaction and sends it outside any transaction; a claim
+-- lapses at claimed_until, so rows left behind by a relay that died are sent again
+ALTER TABLE event_outbox ADD COLUMN claimed_by VARCHAR(36);
+ALTER TABLE event_outbox ADD COLUMN claimed_until TIMESTAMP;
@@ -0,0 +1,17 @@
+-- Rollup buckets: one row per (granularity, bucket start)
+ALTER TABLE sales_metrics ADD COLUMN granularity VARCHAR(10) NOT NULL DEFAULT 'DAY';
+ALTER TABLE sales_metrics ALTER COLUMN total_sales TYPE DECIMAL(14,2);
+
+DROP INDEX idx_sales_metrics_date;
+CREATE UNIQUE INDEX idx_sales_metrics_granularity_date ON sales_metrics(granularity, date);
+
+-- Progress of incremental rollup jobs
+CREATE TABLE rollup_watermarks (
+    name VARCHAR(100) PRIMARY KEY,
+    last_order_id BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO rollup_watermarks (name, last_order_id) VALUES ('sales_metrics', 0);
+
+CREATE INDEX idx_customers_registration_date ON customers(registration_date);
@@ -0,0 +1,22 @@
+-- Change counters for small dimension tables cached in memory by the application
+CREATE TABLE dimension_versions (
+    name VARCHAR(100) PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO dimension_versions (name) VALUES ('categories'), ('vendors');
+
+CREATE FUNCTION bump_dimension_version() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE dimension_versions SET version = version + 1 WHERE name = TG_TABLE_NAME;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_categories_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON categories
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_dimension_version();
+
+CREATE TRIGGER trg_vendors_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON vendors
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_dimension_version();
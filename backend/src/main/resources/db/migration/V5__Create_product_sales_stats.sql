@@ -0,0 +1,40 @@
+-- Per-product sales read model maintained from order events
+CREATE TABLE product_sales_stats (
+    product_id BIGINT PRIMARY KEY REFERENCES products(id),
+    units_sold BIGINT NOT NULL DEFAULT 0,
+    gross_revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    last_sale_at TIMESTAMP,
+    units_7d BIGINT NOT NULL DEFAULT 0,
+    units_30d BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Daily units per product, kept for 30 days to slide the velocity windows
+CREATE TABLE product_sales_daily (
+    product_id BIGINT NOT NULL REFERENCES products(id),
+    day DATE NOT NULL,
+    units BIGINT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    PRIMARY KEY (product_id, day)
+);
+
+CREATE INDEX idx_product_sales_daily_day ON product_sales_daily(day);
+
+-- Seed both tables from existing orders
+INSERT INTO product_sales_daily (product_id, day, units, revenue)
+SELECT oi.product_id, CAST(o.order_date AS DATE), SUM(oi.quantity), SUM(oi.quantity * oi.unit_price)
+FROM order_items oi
+JOIN orders o ON o.id = oi.order_id
+WHERE o.order_date >= CURRENT_DATE - 29
+GROUP BY oi.product_id, CAST(o.order_date AS DATE);
+
+INSERT INTO product_sales_stats (product_id, units_sold, gross_revenue, last_sale_at, units_7d, units_30d)
+SELECT oi.product_id,
+       SUM(oi.quantity),
+       SUM(oi.quantity * oi.unit_price),
+       MAX(o.order_date),
+       COALESCE(SUM(oi.quantity) FILTER (WHERE o.order_date >= CURRENT_DATE - 6), 0),
+       COALESCE(SUM(oi.quantity) FILTER (WHERE o.order_date >= CURRENT_DATE - 29), 0)
+FROM order_items oi
+JOIN orders o ON o.id = oi.order_id
+GROUP BY oi.product_id;
@@ -0,0 +1,5 @@
+-- Trigram indexes so substring search on name and SKU no longer scans products
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_products_name_trgm ON products USING GIN (name gin_trgm_ops) WHERE is_active = true;
+CREATE INDEX idx_products_sku_trgm ON products USING GIN (sku gin_trgm_ops) WHERE is_active = true;
@@ -0,0 +1,8 @@
+-- Composite indexes matching the keyset pagination sort orders
+CREATE INDEX idx_alerts_created_at_id ON alerts(created_at DESC, id DESC);
+
+-- Supersedes idx_orders_customer_id, which is its leading column
+CREATE INDEX idx_orders_customer_date_id ON orders(customer_id, order_date DESC, id DESC);
+DROP INDEX idx_orders_customer_id;
+
+CREATE INDEX idx_products_active_id ON products(id) WHERE is_active = true;
@@ -0,0 +1,9 @@
+-- Domain events written in the same transaction as the entity change; the relay
+-- publishes them to Kafka in id order and deletes each row once the broker acks it
+CREATE TABLE event_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    topic VARCHAR(100) NOT NULL,
+    event_key VARCHAR(100) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,15 @@
+-- Rejections the relay cannot recover from (unreadable payload, oversized record) are counted;
+-- rows past the limit move to event_outbox_parked instead of being resent every round
+ALTER TABLE event_outbox ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE event_outbox ADD COLUMN last_error TEXT;
+
+CREATE TABLE event_outbox_parked (
+    id BIGINT PRIMARY KEY,
+    topic VARCHAR(100) NOT NULL,
+    event_key VARCHAR(100) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    attempts INT NOT NULL,
+    last_error TEXT,
+    parked_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,74 @@
+package com.ecommerce.analytics.cache;
+
+import com.ecommerce.analytics.dto.CachedPage;
+import com.ecommerce.analytics.dto.DashboardMetricsDTO;
+import com.ecommerce.analytics.dto.ProductDTO;
+import com.ecommerce.analytics.entity.Alert;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every codec must read back the values the caches actually hold; pages are large enough to
+ * cross the compression threshold.
+ */
+class CacheCodecTest {
+
+    private static final int COMPRESSION_THRESHOLD = 1024;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 15, 10, 30, 15, 123_000_000);
+
+    @ParameterizedTest
+    @EnumSource(CacheCodec.class)
+    void roundTripsProductPage(CacheCodec codec) {
+        List<ProductDTO> products = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            products.add(new ProductDTO(id, "Product " + id, "SKU-" + id, new BigDecimal("29.99"), 12,
+                    "Category", "Vendor", new BigDecimal("4.5"), 7, new BigDecimal("1234.50"), 41,
+                    id % 2 == 0 ? NOW.minusHours(id) : null, 1.5, 0.25));
+        }
+        Page<ProductDTO> page = new PageImpl<>(products, PageRequest.of(2, 50), 1234);
+        CachedPage<ProductDTO> cached = CachedPage.of(page);
+
+        Object read = roundTrip(codec, cached);
+
+        assertThat(read).isEqualTo(cached);
+        assertThat(((CachedPage<?>) read).toPage()).isEqualTo(page);
+    }
+
+    @ParameterizedTest
+    @EnumSource(CacheCodec.class)
+    void roundTripsAlertList(CacheCodec codec) {
+        List<Alert> alerts = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            alerts.add(new Alert(id, "INVENTORY_LOW", "Low stock", "Product " + id + " is running low", "HIGH",
+                    id % 3 == 0, NOW.minusMinutes(id), Map.of("productId", "SKU-" + id, "threshold", "10")));
+        }
+
+        assertThat(roundTrip(codec, alerts)).isEqualTo(alerts);
+    }
+
+    @ParameterizedTest
+    @EnumSource(CacheCodec.class)
+    void roundTripsDashboardMetrics(CacheCodec codec) {
+        DashboardMetricsDTO metrics = new DashboardMetricsDTO("$1,234,567.89", 4321L, 987L,
+                new BigDecimal("285.72"), 22.8, 5, List.of("customers"));
+
+        assertThat(roundTrip(codec, metrics)).isEqualTo(metrics);
+    }
+
+    private static Object roundTrip(CacheCodec codec, Object value) {
+        RedisSerializer<Object> serializer = codec.serializer(COMPRESSION_THRESHOLD);
+        return serializer.deserialize(serializer.serialize(value));
+    }
+}
@@ -0,0 +1,168 @@
+package com.ecommerce.analytics.events;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Every schema must survive the binary format, legacy EventMessage JSON from producers that have
+ * not migrated must still decode, and headers the reader does not recognise must fail as a
+ * SerializationException rather than as whatever the payload happens to trip over.
+ */
+class EventSerializationTest {
+
+    private static final String TOPIC = "events";
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 15, 10, 30, 15, 123_000_000);
+
+    private final EventSerializer serializer = new EventSerializer();
+    private final EventDeserializer deserializer = new EventDeserializer();
+
+    static List<DomainEvent> events() {
+        Map<String, Long> severities = new TreeMap<>(Map.of("HIGH", 2L, "LOW", 1L));
+        Map<String, Long> alertTypes = new TreeMap<>(Map.of("INVENTORY_LOW", 3L));
+        return List.of(
+                new OrderEvent("evt-1", "ORDER_CREATED", 42L, 7L, "PENDING", new BigDecimal("129.97"),
+                        new BigDecimal("129.97"), NOW.minusMinutes(5),
+                        List.of(new OrderEvent.Item(3L, 2, new BigDecimal("49.99")),
+                                new OrderEvent.Item(9L, 1, new BigDecimal("29.99"))),
+                        NOW, "analytics-api"),
+                new ProductEvent("evt-2", "INVENTORY_UPDATED", 3L, "Desk Lamp", "SKU-3", new BigDecimal("49.99"),
+                        12, 10, NOW, "analytics-api"),
+                new AlertEvent("evt-3", "ALERT_CREATED", 11L, "INVENTORY_LOW", "HIGH", "Low stock",
+                        null, null, null, NOW, "analytics-api"),
+                new AlertEvent("evt-4", "ALERTS_READ", null, null, null, null,
+                        3, severities, alertTypes, NOW, "analytics-api"),
+                new AnalyticsEvent("evt-5", "METRIC_RECORDED", Map.of("metric", "page_views", "value", 17),
+                        NOW, "analytics-api"));
+    }
+
+    @Test
+    void coversEverySchema() {
+        Set<EventSchema> covered = EnumSet.noneOf(EventSchema.class);
+        events().forEach(event -> covered.add(EventSchema.of(event)));
+
+        assertThat(covered).containsExactlyInAnyOrder(EventSchema.values());
+    }
+
+    @ParameterizedTest
+    @MethodSource("events")
+    void roundTripsThroughSmile(DomainEvent event) {
+        byte[] bytes = serializer.serialize(TOPIC, event);
+
+        EventSchema schema = EventSchema.of(event);
+        assertThat(Arrays.copyOf(bytes, EventSerializer.HEADER_LENGTH))
+                .containsExactly(EventSerializer.MAGIC, schema.id(), schema.version());
+        assertThat(deserializer.deserialize(TOPIC, bytes)).isEqualTo(event);
+    }
+
+    @ParameterizedTest
+    @MethodSource("events")
+    void roundTripsThroughLegacyJsonWireFormat(DomainEvent event) {
+        EventSerializer jsonSerializer = new EventSerializer();
+        jsonSerializer.configure(Map.of(EventSerializer.WIRE_FORMAT_CONFIG, "json"), false);
+
+        byte[] bytes = jsonSerializer.serialize(TOPIC, event);
+
+        assertThat(bytes[0]).isEqualTo((byte) '{');
+        assertThat(deserializer.deserialize(TOPIC, bytes).toMessage()).isEqualTo(event.toMessage());
+    }
+
+    @Test
+    void decodesLegacyOrderMessage() {
+        // As written by producers before schema version 2: no eventId, amounts as JSON numbers
+        String json = """
+                {"eventType":"ORDER_CREATED","entityType":"ORDER","entityId":42,
+                 "data":{"customerId":7,"status":"PENDING","totalAmount":129.97,"orderDate":"2024-03-15T10:25:15",
+                         "items":[{"productId":3,"quantity":2,"unitPrice":49.99},{"productId":9,"unitPrice":"29.99"}]},
+                 "timestamp":"2024-03-15T10:30:15.123","source":"analytics-api"}
+                """;
+
+        DomainEvent event = deserializer.deserialize(TOPIC, json.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(event).isEqualTo(new OrderEvent(null, "ORDER_CREATED", 42L, 7L, "PENDING",
+                new BigDecimal("129.97"), null, LocalDateTime.of(2024, 3, 15, 10, 25, 15),
+                List.of(new OrderEvent.Item(3L, 2, new BigDecimal("49.99")),
+                        new OrderEvent.Item(9L, 1, new BigDecimal("29.99"))),
+                NOW, "analytics-api"));
+    }
+
+    @Test
+    void decodesLegacyMessageWithUnknownEntityTypeAsAnalytics() {
+        String json = """
+                {"eventId":"evt-9","eventType":"SESSION_STARTED","entityType":"SESSION",
+                 "data":{"sessionId":"abc"},"timestamp":"2024-03-15T10:30:15.123","source":"web"}
+                """;
+
+        DomainEvent event = deserializer.deserialize(TOPIC, json.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(event).isEqualTo(new AnalyticsEvent("evt-9", "SESSION_STARTED", Map.of("sessionId", "abc"), NOW, "web"));
+    }
+
+    @Test
+    void decodesNewerVersionIgnoringUnknownComponents() throws Exception {
+        Map<String, Object> newer = new TreeMap<>();
+        newer.put("eventId", "evt-2");
+        newer.put("eventType", "INVENTORY_UPDATED");
+        newer.put("productId", 3L);
+        newer.put("warehouse", "EU-1");
+        byte[] payload = EventSerializer.SMILE.writeValueAsBytes(newer);
+
+        DomainEvent event = deserializer.deserialize(TOPIC, withHeader(EventSchema.PRODUCT.id(),
+                (byte) (EventSchema.PRODUCT.version() + 1), payload));
+
+        assertThat(event).isEqualTo(new ProductEvent("evt-2", "INVENTORY_UPDATED", 3L, null, null, null,
+                null, null, null, null));
+    }
+
+    @Test
+    void rejectsUnknownSchemaId() {
+        byte[] bytes = serializer.serialize(TOPIC, events().get(0));
+        bytes[1] = 99;
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, bytes))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("schema id 99");
+    }
+
+    @Test
+    void rejectsUnknownSchemaVersion() {
+        byte[] bytes = serializer.serialize(TOPIC, events().get(0));
+        bytes[2] = 0;
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, bytes))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("ORDER schema version 0");
+    }
+
+    @Test
+    void rejectsTruncatedPayload() {
+        byte[] bytes = serializer.serialize(TOPIC, events().get(0));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, truncated))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    private static byte[] withHeader(byte schemaId, byte version, byte[] payload) {
+        byte[] bytes = new byte[EventSerializer.HEADER_LENGTH + payload.length];
+        bytes[0] = EventSerializer.MAGIC;
+        bytes[1] = schemaId;
+        bytes[2] = version;
+        System.arraycopy(payload, 0, bytes, EventSerializer.HEADER_LENGTH, payload.length);
+        return bytes;
+    }
+}
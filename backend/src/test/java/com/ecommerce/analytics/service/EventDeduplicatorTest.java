@@ -0,0 +1,119 @@
+package com.ecommerce.analytics.service;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A zero-length window rotates the filter on every {@code findDuplicates} call and counts every
+ * assigned partition as owned for a full window, which makes rotation boundaries deterministic.
+ */
+class EventDeduplicatorTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("order-events", 0);
+
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+
+    @BeforeEach
+    void redisHasSeenNothing() {
+        pipelineReturns(false);
+    }
+
+    @Test
+    void catchesIdProcessedBeforeRotation() {
+        EventDeduplicator deduplicator = deduplicator(0, 1000);
+        deduplicator.onPartitionsAssigned(List.of(PARTITION));
+        deduplicator.markProcessed(List.of("evt-1"));
+        pipelineReturns(true);
+
+        boolean[] duplicates = deduplicator.findDuplicates(List.of(key("evt-1")));
+
+        assertThat(duplicates).containsExactly(true);
+        // markProcessed plus the confirming lookup
+        verify(redis, times(2)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void clearsIdOnOwnedPartitionWithoutRedisOnceFilterForgetsIt() {
+        EventDeduplicator deduplicator = deduplicator(0, 1000);
+        deduplicator.onPartitionsAssigned(List.of(PARTITION));
+        deduplicator.markProcessed(List.of("evt-1"));
+        deduplicator.findDuplicates(List.of());
+
+        boolean[] duplicates = deduplicator.findDuplicates(List.of(key("evt-1")));
+
+        assertThat(duplicates).containsExactly(false);
+        verify(redis, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void confirmsFilterFalsePositiveAgainstRedis() {
+        // A single-word filter is saturated by a few hundred ids, so any unseen id hits it
+        EventDeduplicator deduplicator = deduplicator(0, 1);
+        deduplicator.onPartitionsAssigned(List.of(PARTITION));
+        for (int i = 0; i < 500; i++) {
+            deduplicator.remember("seen-" + i);
+        }
+
+        boolean[] duplicates = deduplicator.findDuplicates(List.of(key("never-seen")));
+
+        assertThat(duplicates).containsExactly(false);
+        verify(redis).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void checksRedisForPartitionNotOwnedForWindow() {
+        EventDeduplicator deduplicator = deduplicator(Long.MAX_VALUE, 1000);
+        deduplicator.onPartitionsAssigned(List.of(PARTITION));
+        pipelineReturns(true);
+
+        boolean[] duplicates = deduplicator.findDuplicates(List.of(key("evt-1")));
+
+        assertThat(duplicates).containsExactly(true);
+    }
+
+    @Test
+    void flagsRepeatWithinBatchWithoutRedis() {
+        EventDeduplicator deduplicator = deduplicator(0, 1000);
+        deduplicator.onPartitionsAssigned(List.of(PARTITION));
+
+        boolean[] duplicates = deduplicator.findDuplicates(List.of(key("evt-1"), key(null), key("evt-1"), key(null)));
+
+        assertThat(duplicates).containsExactly(false, false, true, false);
+        verify(redis, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void failsOpenWhenRedisIsDown() {
+        EventDeduplicator deduplicator = deduplicator(Long.MAX_VALUE, 1000);
+        when(redis.executePipelined(any(RedisCallback.class))).thenThrow(new IllegalStateException("connection refused"));
+
+        boolean[] duplicates = deduplicator.findDuplicates(List.of(new EventDeduplicator.EventKey("evt-1", null)));
+
+        assertThat(duplicates).containsExactly(false);
+    }
+
+    private EventDeduplicator deduplicator(long windowMillis, long expectedPerWindow) {
+        return new EventDeduplicator(redis, windowMillis, expectedPerWindow, 0.01);
+    }
+
+    private void pipelineReturns(boolean exists) {
+        when(redis.executePipelined(any(RedisCallback.class))).thenReturn(List.of(exists));
+    }
+
+    private static EventDeduplicator.EventKey key(String id) {
+        return new EventDeduplicator.EventKey(id, PARTITION);
+    }
+}
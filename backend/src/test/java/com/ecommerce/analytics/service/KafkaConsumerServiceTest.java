@@ -0,0 +1,125 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.events.DomainEvent;
+import com.ecommerce.analytics.events.OrderEvent;
+import com.ecommerce.analytics.rules.AlertRuleEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Duplicates are dropped before any sink runs, but their offsets still have to be committed or
+ * the batch would be redelivered forever. Sales stats are written for the whole batch before its
+ * offsets are committed.
+ */
+class KafkaConsumerServiceTest {
+
+    private static final String TOPIC = "order-events";
+
+    private final OrderMetricsStore orderMetricsStore = mock(OrderMetricsStore.class);
+    private final ProductLeaderboard productLeaderboard = mock(ProductLeaderboard.class);
+    private final ProductSalesStatsService productSalesStatsService = mock(ProductSalesStatsService.class);
+    private final AlertRuleEngine alertRuleEngine = mock(AlertRuleEngine.class);
+    private final EventRetryRouter eventRetryRouter = mock(EventRetryRouter.class);
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Acknowledgment ack = mock(Acknowledgment.class);
+
+    private final KafkaConsumerService consumer = new KafkaConsumerService(orderMetricsStore, productLeaderboard,
+            productSalesStatsService, mock(ProductSearchIndex.class), mock(CacheInvalidationService.class),
+            mock(AlertPushHub.class), alertRuleEngine, eventRetryRouter,
+            new EventDeduplicator(redis, 300000, 1000, 0.01), new EventConsumerMetrics(meterRegistry));
+
+    @Test
+    void skipsDuplicatesConfirmedByRedisAndStillAcks() {
+        // The partition was only just assigned, so both ids are checked against Redis
+        consumer.onPartitionsAssigned(Map.of(new TopicPartition(TOPIC, 0), 0L), null);
+        when(redis.executePipelined(any(RedisCallback.class))).thenReturn(List.of(true, true));
+
+        consumer.consumeOrderEvents(List.of(record(10, "evt-1"), record(11, "evt-2")), ack);
+
+        verify(ack).acknowledge();
+        verify(ack, never()).nack(anyInt(), any());
+        verifyNoInteractions(productLeaderboard, productSalesStatsService, alertRuleEngine);
+        verify(eventRetryRouter, never()).retry(any(), any(), any());
+        assertThat(meterRegistry.get("kafka.consumer.handler").tag("outcome", "duplicate").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void skipsRepeatWithinBatchAndStillAcks() {
+        consumer.onPartitionsAssigned(Map.of(new TopicPartition(TOPIC, 0), 0L), null);
+        when(redis.executePipelined(any(RedisCallback.class))).thenReturn(List.of(true));
+
+        consumer.consumeOrderEvents(List.of(record(10, "evt-1"), record(11, "evt-1")), ack);
+
+        verify(ack).acknowledge();
+        assertThat(meterRegistry.get("kafka.consumer.handler").tag("outcome", "duplicate").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void writesSalesStatsBeforeAck() {
+        when(eventRetryRouter.completedSinks(any())).thenAnswer(invocation -> new LinkedHashSet<>());
+        when(redis.executePipelined(any(RedisCallback.class))).thenReturn(List.of(false, false));
+
+        consumer.consumeOrderEvents(List.of(record(10, "evt-1"), record(11, "evt-2")), ack);
+
+        InOrder inOrder = inOrder(productSalesStatsService, ack);
+        inOrder.verify(productSalesStatsService).write(argThat(sales -> sales.size() == 2));
+        inOrder.verify(ack).acknowledge();
+        verify(eventRetryRouter, never()).retry(any(), any(), any());
+    }
+
+    @Test
+    void parksBatchWithSalesStatsPendingWhenWriteFails() {
+        when(eventRetryRouter.completedSinks(any())).thenAnswer(invocation -> new LinkedHashSet<>());
+        when(redis.executePipelined(any(RedisCallback.class))).thenReturn(List.of(false, false));
+        doThrow(new QueryTimeoutException("statement timeout")).when(productSalesStatsService).write(any());
+        List<ConsumerRecord<String, DomainEvent>> records = List.of(record(10, "evt-1"), record(11, "evt-2"));
+
+        consumer.consumeOrderEvents(records, ack);
+
+        ArgumentCaptor<Set<String>> completed = ArgumentCaptor.captor();
+        verify(eventRetryRouter).retry(same(records.get(0)), any(), completed.capture());
+        verify(eventRetryRouter).retry(same(records.get(1)), any(), completed.capture());
+        assertThat(completed.getAllValues()).allSatisfy(sinks -> assertThat(sinks)
+                .contains("month-to-date", "leaderboard", "alert-rules")
+                .doesNotContain("sales-stats"));
+        verify(ack).acknowledge();
+    }
+
+    private static ConsumerRecord<String, DomainEvent> record(long offset, String eventId) {
+        OrderEvent event = new OrderEvent(eventId, "ORDER_CREATED", 42L, 7L, "PENDING", new BigDecimal("10.00"),
+                new BigDecimal("10.00"), null, List.of(new OrderEvent.Item(3L, 1, new BigDecimal("10.00"))),
+                LocalDateTime.of(2024, 3, 15, 10, 30), "analytics-api");
+        return new ConsumerRecord<>(TOPIC, 0, offset, "42", event);
+    }
+}
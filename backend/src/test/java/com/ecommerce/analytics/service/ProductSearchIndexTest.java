@@ -0,0 +1,71 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.dto.ProductSuggestionDTO;
+import com.ecommerce.analytics.entity.Product;
+import com.ecommerce.analytics.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private static final int MAX_CANDIDATES = 3;
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSearchIndex index = new ProductSearchIndex(productRepository, MAX_CANDIDATES);
+
+    @Test
+    void findsMatchBeyondCandidateCapOfCommonTerm() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            rows.add(row(id, "Blue Shirt " + id, "SKU-" + id));
+        }
+        rows.add(row(21L, "Blue Desk Lamp", "LAMP-21"));
+        when(productRepository.findActiveSearchFields()).thenReturn(rows);
+        index.rebuild();
+
+        assertThat(index.autocomplete("blue lamp", 5)).extracting(ProductSuggestionDTO::getId).containsExactly(21L);
+    }
+
+    @Test
+    void findsSkuMatchWhoseTokensAreNotNameTokens() {
+        when(productRepository.findActiveSearchFields()).thenReturn(List.of(
+                row(1L, "Desk Lamp", "lamp-900"), row(2L, "Floor Lamp 900", "FL-2")));
+        index.rebuild();
+
+        assertThat(index.autocomplete("lamp 900", 5)).extracting(ProductSuggestionDTO::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void keepsProductReindexedWhileRebuildLoads() {
+        when(productRepository.findAllById(any())).thenReturn(List.of(product(7L, "Walnut Desk", "DESK-7")));
+        // The product is created after the rebuild query read the table but before the new index is swapped in
+        when(productRepository.findActiveSearchFields()).thenAnswer(invocation -> {
+            index.reindex(7L);
+            return List.<Object[]>of(row(1L, "Oak Desk", "DESK-1"));
+        });
+
+        index.rebuild();
+
+        assertThat(index.autocomplete("desk", 5)).extracting(ProductSuggestionDTO::getId).containsExactly(1L, 7L);
+    }
+
+    private static Object[] row(Long id, String name, String sku) {
+        return new Object[] {id, name, sku};
+    }
+
+    private static Product product(Long id, String name, String sku) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setSku(sku);
+        product.setIsActive(true);
+        return product;
+    }
+}
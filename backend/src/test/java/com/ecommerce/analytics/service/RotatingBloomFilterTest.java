@@ -0,0 +1,62 @@
+package com.ecommerce.analytics.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * An id must survive exactly one rotation: the deduplicator relies on it to remember every id
+ * from at least the last full window.
+ */
+class RotatingBloomFilterTest {
+
+    private final RotatingBloomFilter filter = new RotatingBloomFilter(1000, 0.001);
+
+    @Test
+    void remembersIdAcrossOneRotation() {
+        filter.put("evt-1");
+
+        filter.rotate();
+
+        assertThat(filter.mightContain("evt-1")).isTrue();
+    }
+
+    @Test
+    void forgetsIdAfterSecondRotation() {
+        filter.put("evt-1");
+
+        filter.rotate();
+        filter.rotate();
+
+        assertThat(filter.mightContain("evt-1")).isFalse();
+    }
+
+    @Test
+    void idPutAfterRotationOutlivesTheOlderGeneration() {
+        filter.put("evt-1");
+        filter.rotate();
+        filter.put("evt-2");
+
+        filter.rotate();
+
+        assertThat(filter.mightContain("evt-1")).isFalse();
+        assertThat(filter.mightContain("evt-2")).isTrue();
+    }
+
+    @Test
+    void staysWithinFalsePositiveBudget() {
+        for (int i = 0; i < 1000; i++) {
+            filter.put("seen-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("unseen-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Sized for 0.1%; allow generous slack so the test only catches broken hashing or sizing
+        assertThat(falsePositives).isLessThan(50);
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.analytics.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void countsExactlyWhileUnderCapacity() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(4);
+        sketch.add(1L, 5, 500, 1);
+        sketch.add(2L, 3, 300, 1);
+        sketch.add(1L, 2, 200, 2);
+
+        assertThat(rows(sketch)).containsOnlyKeys(1L, 2L);
+        assertThat(rows(sketch).get(1L)).containsExactly(1L, 7L, 0L, 700L, 3L);
+        assertThat(rows(sketch).get(2L)).containsExactly(2L, 3L, 0L, 300L, 1L);
+    }
+
+    @Test
+    void evictsSmallestCounterAndInheritsItsWeightAsError() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(3);
+        sketch.add(1L, 10, 1000, 1);
+        sketch.add(2L, 4, 400, 1);
+        sketch.add(3L, 7, 700, 1);
+
+        sketch.add(4L, 2, 200, 1);
+
+        assertThat(rows(sketch)).containsOnlyKeys(1L, 3L, 4L);
+        assertThat(rows(sketch).get(4L)).containsExactly(4L, 6L, 4L, 200L, 1L);
+    }
+
+    @Test
+    void reseedCanLowerWeightBelowOthers() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(3);
+        sketch.add(1L, 10, 1000, 1);
+        sketch.add(2L, 4, 400, 1);
+        sketch.add(3L, 7, 700, 1);
+
+        sketch.put(1L, 1, 100, 1);
+        sketch.add(4L, 2, 200, 1);
+
+        assertThat(rows(sketch)).containsOnlyKeys(2L, 3L, 4L);
+        assertThat(rows(sketch).get(4L)[2]).isEqualTo(1L);
+    }
+
+    @Test
+    void keepsHeavyHittersAndBoundsErrorOnSkewedStream() {
+        int capacity = 50;
+        SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+        Map<Long, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        long total = 0;
+        for (int i = 0; i < 100_000; i++) {
+            // Ten heavy keys take half the weight; the rest is spread over ten thousand keys
+            long key = random.nextBoolean() ? random.nextInt(10) : 10 + random.nextInt(10_000);
+            long weight = 1 + random.nextInt(5);
+            sketch.add(key, weight, weight * 100, 1);
+            exact.merge(key, weight, Long::sum);
+            total += weight;
+        }
+
+        Map<Long, long[]> rows = rows(sketch);
+        assertThat(rows).hasSize(capacity);
+        for (long key = 0; key < 10; key++) {
+            assertThat(rows).containsKey(key);
+        }
+        for (long[] row : rows.values()) {
+            long trueWeight = exact.get(row[0]);
+            // Space-Saving never underestimates, and over-estimates by at most its recorded error <= total / capacity
+            assertThat(row[1]).isGreaterThanOrEqualTo(trueWeight);
+            assertThat(row[1] - row[2]).isLessThanOrEqualTo(trueWeight);
+            assertThat(row[2]).isLessThanOrEqualTo(total / capacity);
+        }
+    }
+
+    private static Map<Long, long[]> rows(SpaceSavingSketch sketch) {
+        Map<Long, long[]> rows = new HashMap<>();
+        List<long[]> snapshot = sketch.snapshot();
+        snapshot.forEach(row -> rows.put(row[0], row));
+        return rows;
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.analytics.cache;
+
+import com.ecommerce.analytics.dto.CachedPage;
+import com.ecommerce.analytics.dto.ProductDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis value codecs on a product page as the productMetrics cache stores it. {@code json} is
+ * the GenericJackson2JsonRedisSerializer; the binary codecs are what the caches use by default.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheCodecBenchmark {
+
+    private static final int COMPRESSION_THRESHOLD = 1024;
+
+    @Param({"json", "binary", "binary-lz4", "binary-zstd"})
+    private String codec;
+
+    @Param({"20", "500"})
+    private int pageSize;
+
+    private RedisSerializer<Object> serializer;
+    private CachedPage<ProductDTO> page;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        serializer = CacheCodec.fromName(codec).serializer(COMPRESSION_THRESHOLD);
+        List<ProductDTO> content = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            content.add(new ProductDTO(id, "Product " + id, "SKU-" + id, BigDecimal.valueOf(2999 + id, 2),
+                    (int) (id % 500), "Category " + id % 50, "Vendor " + id % 200, new BigDecimal("4.5"),
+                    (int) (id * 7 % 1000), BigDecimal.valueOf(id * 123_456, 2), (int) (id * 13 % 10_000),
+                    LocalDateTime.of(2024, 3, 15, 10, 30).minusMinutes(id), id % 100 / 7.0, id % 400 / 30.0));
+        }
+        page = CachedPage.of(new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000));
+        bytes = serializer.serialize(page);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(page);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return serializer.deserialize(serializer.serialize(page));
+    }
+}
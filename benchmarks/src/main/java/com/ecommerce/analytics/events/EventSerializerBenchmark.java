@@ -0,0 +1,56 @@
+package com.ecommerce.analytics.events;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka value serialization of an order event in both wire formats.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventSerializerBenchmark {
+
+    private static final String TOPIC = "order-events";
+
+    @Param({"binary", "json"})
+    private String wireFormat;
+
+    private final EventSerializer serializer = new EventSerializer();
+    private final EventDeserializer deserializer = new EventDeserializer();
+
+    private DomainEvent event;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        serializer.configure(Map.of(EventSerializer.WIRE_FORMAT_CONFIG, wireFormat), false);
+        event = SampleEvents.orderCreated();
+        payload = serializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public DomainEvent deserialize() {
+        return deserializer.deserialize(TOPIC, payload);
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.analytics.events;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// A typical checkout: a handful of line items, all fields populated
+final class SampleEvents {
+
+    private static final int ITEMS = 5;
+
+    private SampleEvents() {
+    }
+
+    static OrderEvent orderCreated() {
+        List<OrderEvent.Item> items = new ArrayList<>(ITEMS);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 1; i <= ITEMS; i++) {
+            BigDecimal unitPrice = BigDecimal.valueOf(1999L * i, 2);
+            items.add(new OrderEvent.Item(1000L + i, i, unitPrice));
+            total = total.add(unitPrice.multiply(BigDecimal.valueOf(i)));
+        }
+        LocalDateTime now = LocalDateTime.of(2024, 3, 15, 10, 30, 15, 123_000_000);
+        return new OrderEvent(UUID.nameUUIDFromBytes(new byte[] {1}).toString(), "ORDER_CREATED", 123456L, 98765L,
+                "PENDING", total, total, now, items, now, "analytics-api");
+    }
+}
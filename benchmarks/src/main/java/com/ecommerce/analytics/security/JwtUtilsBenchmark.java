@@ -0,0 +1,66 @@
+package com.ecommerce.analytics.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token checks done by JwtAuthenticationFilter on every authenticated request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilsBenchmark {
+
+    // HS256 needs at least 256 bits of key
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+    private final JwtUtils jwtUtils = new JwtUtils();
+    private String token;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        set("jwtSecret", SECRET);
+        set("jwtExpirationMs", 86_400_000);
+        UserDetails user = User.withUsername("admin").password("unused").roles("ADMIN").build();
+        token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @Benchmark
+    public boolean validateJwtToken() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public String getUserNameFromJwtToken() {
+        return jwtUtils.getUserNameFromJwtToken(token);
+    }
+
+    // What the filter actually pays: validation, then a second parse for the subject
+    @Benchmark
+    public String authenticateRequest() {
+        return jwtUtils.validateJwtToken(token) ? jwtUtils.getUserNameFromJwtToken(token) : null;
+    }
+
+    private void set(String name, Object value) throws ReflectiveOperationException {
+        Field field = JwtUtils.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtUtils, value);
+    }
+}
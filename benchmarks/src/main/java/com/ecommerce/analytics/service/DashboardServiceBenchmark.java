@@ -0,0 +1,64 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.dto.DashboardMetricsDTO;
+import com.ecommerce.analytics.repository.CustomerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static com.ecommerce.analytics.service.Stubs.stub;
+
+/**
+ * {@link DashboardService#getDashboardMetrics} with every widget fresh, which is what most
+ * requests see: snapshot assembly plus the NumberFormat currency formatting of total sales.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DashboardServiceBenchmark {
+
+    private static final long STALENESS_MS = TimeUnit.DAYS.toMillis(1);
+
+    private DashboardService dashboardService;
+
+    @Setup
+    public void setUp() {
+        // The event-fed store answers sales and orders, so the order repository is never queried
+        OrderMetricsStore orderMetricsStore = new OrderMetricsStore(null, null, new NewTopic("order-events", 3, (short) 1));
+        orderMetricsStore.recordOrder(0, 1L, 1L, new BigDecimal("1234567.89"), LocalDateTime.now());
+        UnreadAlertCounter unreadAlertCounter = new UnreadAlertCounter(null, null) {
+            @Override
+            public long total() {
+                return 5L;
+            }
+        };
+        DashboardSnapshotBuilder snapshotBuilder = new DashboardSnapshotBuilder(new SimpleMeterRegistry(), 250,
+                STALENESS_MS, STALENESS_MS, STALENESS_MS, STALENESS_MS, STALENESS_MS);
+
+        dashboardService = new DashboardService(null, stub(CustomerRepository.class, "count", args -> 987L),
+                unreadAlertCounter, orderMetricsStore, snapshotBuilder, null);
+        // Loads every widget once; later calls are served from the fresh values
+        dashboardService.getDashboardMetrics();
+    }
+
+    @Benchmark
+    public DashboardMetricsDTO getDashboardMetrics() {
+        return dashboardService.getDashboardMetrics();
+    }
+}
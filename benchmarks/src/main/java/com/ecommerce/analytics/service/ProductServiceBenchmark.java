@@ -0,0 +1,97 @@
+package com.ecommerce.analytics.service;
+
+import com.ecommerce.analytics.dto.CachedPage;
+import com.ecommerce.analytics.dto.ProductDTO;
+import com.ecommerce.analytics.dto.ProductRow;
+import com.ecommerce.analytics.entity.Category;
+import com.ecommerce.analytics.entity.Vendor;
+import com.ecommerce.analytics.repository.CategoryRepository;
+import com.ecommerce.analytics.repository.DimensionVersionRepository;
+import com.ecommerce.analytics.repository.ProductRepository;
+import com.ecommerce.analytics.repository.VendorRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.ecommerce.analytics.service.Stubs.stub;
+
+/**
+ * Row-to-DTO mapping of a product page, through {@link ProductService#getAllProducts} with the
+ * repositories stubbed out, so only the per-row conversion and name lookups are measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceBenchmark {
+
+    private static final int CATEGORIES = 50;
+    private static final int VENDORS = 200;
+
+    @Param({"20", "500", "5000"})
+    private int pageSize;
+
+    private ProductService productService;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<ProductRow> rows = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            rows.add(new ProductRow(id, "Product " + id, "SKU-" + id,
+                    BigDecimal.valueOf(random.nextInt(100_000), 2), random.nextInt(500),
+                    (long) random.nextInt(CATEGORIES) + 1, (long) random.nextInt(VENDORS) + 1,
+                    BigDecimal.valueOf(random.nextInt(50), 1), random.nextInt(1000),
+                    (long) random.nextInt(10_000), BigDecimal.valueOf(random.nextInt(10_000_000), 2),
+                    LocalDateTime.now().minusMinutes(random.nextInt(100_000)),
+                    (long) random.nextInt(100), (long) random.nextInt(400)));
+        }
+
+        List<Category> categories = new ArrayList<>();
+        for (long id = 1; id <= CATEGORIES; id++) {
+            Category category = new Category();
+            category.setId(id);
+            category.setName("Category " + id);
+            categories.add(category);
+        }
+        List<Vendor> vendors = new ArrayList<>();
+        for (long id = 1; id <= VENDORS; id++) {
+            Vendor vendor = new Vendor();
+            vendor.setId(id);
+            vendor.setName("Vendor " + id);
+            vendors.add(vendor);
+        }
+
+        ProductDimensionRegistry dimensionRegistry = new ProductDimensionRegistry(
+                stub(CategoryRepository.class, "findAll", args -> categories),
+                stub(VendorRepository.class, "findAll", args -> vendors),
+                stub(DimensionVersionRepository.class, "sumVersions", args -> 1L));
+        ProductRepository productRepository = stub(ProductRepository.class, "findActiveProducts",
+                args -> new PageImpl<>(rows, (Pageable) args[0], rows.size()));
+        productService = new ProductService(productRepository, null, dimensionRegistry, null);
+    }
+
+    @Benchmark
+    public CachedPage<ProductDTO> convertPage() {
+        return productService.getAllProducts(0, pageSize);
+    }
+}
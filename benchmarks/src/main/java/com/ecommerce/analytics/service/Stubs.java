@@ -0,0 +1,21 @@
+package com.ecommerce.analytics.service;
+
+import java.lang.reflect.Proxy;
+import java.util.function.Function;
+
+// Repository stand-ins answering one method; anything else means a benchmark no longer measures what it claims
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, String method, Function<Object[], Object> answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, invoked, args) -> {
+            if (invoked.getName().equals(method)) {
+                return answer.apply(args);
+            }
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + invoked.getName());
+        });
+    }
+}